@@ -0,0 +1,83 @@
+import plt.lexer.BasicToken;
+import plt.lexer.LexerFactory;
+import plt.lexer.RegexLexerFactoryBuilder;
+import plt.lexer.Region;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+public class LexerBenchmark
+{
+    public enum TokenType
+    {
+        COMMENT,
+        IDENTIFIER,
+        NUMBER,
+        SYNTAX,
+        OPERATOR,
+        UNKNOWN,
+    }
+
+    public static class Token extends BasicToken<TokenType>
+    {
+        protected Token(String text, TokenType type, Region region)
+        {
+            super(text, type, region);
+        }
+    }
+
+    private static final int EAGER_LIMIT = 1 << 17;
+
+    public static void main(String[] args)
+    {
+        int max = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 23;
+        LexerFactory<TokenType, Token> eager = create(b -> b.eager().build());
+        LexerFactory<TokenType, Token> lookahead = create(b -> b.lookahead().build());
+        LexerFactory<TokenType, Token> prefilter = create(RegexLexerFactoryBuilder::build);
+
+        System.out.printf("%12s %12s %12s %12s%n", "chars", "eager ms", "lookahead ms", "prefilter ms");
+        for (int size = 1 << 15; size <= max; size *= 2)
+        {
+            String text = generate(size);
+            String e = size <= EAGER_LIMIT ? String.valueOf(measure(eager, text)) : "-";
+            System.out.printf("%12d %12s %12d %12d%n", text.length(), e, measure(lookahead, text), measure(prefilter, text));
+        }
+    }
+
+    private static LexerFactory<TokenType, Token> create(Function<RegexLexerFactoryBuilder<TokenType, Token>, LexerFactory<TokenType, Token>> build)
+    {
+        return build.apply(RegexLexerFactoryBuilder
+                .create(Token::new)
+                .category(TokenType.COMMENT, Pattern.compile("//[^\n]*"))
+                .category(TokenType.IDENTIFIER, Pattern.compile("[_a-zA-Z]\\w*"))
+                .category(TokenType.NUMBER, Pattern.compile("\\d+(\\.\\d+)?"))
+                .category(TokenType.SYNTAX, Pattern.compile("[{(\\[.,;\\])}]"))
+                .category(TokenType.OPERATOR, Pattern.compile("[+\\-*/%=<>!&|^]+"))
+                .category(TokenType.UNKNOWN, Pattern.compile("[^ \t\r\n]")));
+    }
+
+    private static String generate(int size)
+    {
+        StringBuilder builder = new StringBuilder(size + 64);
+        int line = 0;
+        while (builder.length() < size)
+        {
+            builder.append("var value").append(line).append(" = value").append(line - 1).append(" * 2.5 + (").append(line).append(");\n");
+            line++;
+        }
+        builder.append("// the only comment is at the very end\n");
+        return builder.toString();
+    }
+
+    private static long measure(LexerFactory<TokenType, Token> factory, String text)
+    {
+        factory.create().lex(text);
+        long start = System.nanoTime();
+        List<Token> tokens = factory.create().lex(text);
+        long time = (System.nanoTime() - start) / 1_000_000;
+        if(tokens.isEmpty())
+            throw new RuntimeException("No tokens produced!");
+        return time;
+    }
+}
@@ -32,9 +32,6 @@ import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
-import static plt.lexer.ConditionBuilder.ifTextIsOneOf;
-import static plt.lexer.ConditionBuilder.ifTypeIs;
-
 public class SimpleExample
 {
     public enum TokenType
@@ -81,23 +78,17 @@ public class SimpleExample
     {
         LexerFactory<TokenType, Token> factory = RegexLexerFactoryBuilder
                 .create(Token::new)
-                .category(TokenType.COMMENT, Pattern.compile("//[^\n]*"))
+                .skip(TokenType.COMMENT, Pattern.compile("//[^\n]*"))
                 .category(TokenType.IDENTIFIER, Pattern.compile("[_a-zA-Z]\\w*"))
                 .category(TokenType.NUMBER, Pattern.compile("\\d+(\\.\\d+)?"))
                 .category(TokenType.SYNTAX, Pattern.compile("[{(\\[.,;\\])}]"))
-                .category(TokenType.OPERATOR, Pattern.compile("[+\\-*/%=<>!&|^]+"))
+                .literals(TokenType.OPERATOR,
+                        "+", "-", "*", "/", "%", "+=", "-=", "*=", "/=", "%=",
+                        "=", "==", "!=", "<", "<=", ">", ">=", "<<", "<<<", ">>", ">>>",
+                        "!", "&", "&&", "|", "||", "^", "^^")
                 .category(TokenType.UNKNOWN, Pattern.compile("[^ \t\r\n]"))
-                .transformer(
-                        TokenType.IDENTIFIER,
-                        ifTextIsOneOf("true", "false"),
-                        Token.replaceTypeBy(TokenType.BOOLEAN)
-                )
-                .transformer(
-                        TokenType.IDENTIFIER,
-                        ifTextIsOneOf("fn", "if", "else", "ret", "var", "for"),
-                        Token.replaceTypeBy(TokenType.KEYWORD)
-                )
-                .filter(ifTypeIs(TokenType.COMMENT))
+                .keywords(TokenType.IDENTIFIER, TokenType.BOOLEAN, "true", "false")
+                .keywords(TokenType.IDENTIFIER, TokenType.KEYWORD, "fn", "if", "else", "ret", "var", "for")
                 .fail(TokenType.UNKNOWN)
                 .build();
 
@@ -2,20 +2,34 @@ package plt.lexer;
 
 public abstract class BasicToken<T>
 {
-    private final String text;
+    private CharSequence text;
     private final T type;
     private final Region region;
+    private final int symbol;
 
     protected BasicToken(String text, T type, Region region)
+    {
+        this(text, type, region, -1);
+    }
+
+    protected BasicToken(String text, T type, Region region, int symbol)
+    {
+        this((CharSequence) text, type, region, symbol);
+    }
+
+    protected BasicToken(CharSequence text, T type, Region region, int symbol)
     {
         this.text = text;
         this.type = type;
         this.region = region;
+        this.symbol = symbol;
     }
 
     public String text()
     {
-        return this.text;
+        if(this.text != null && !(this.text instanceof String))
+            this.text = this.text.toString();
+        return (String) this.text;
     }
 
     public T type()
@@ -28,13 +42,18 @@ public abstract class BasicToken<T>
         return this.region;
     }
 
+    public int symbol()
+    {
+        return this.symbol;
+    }
+
     public boolean isType(T type)
     {
         return this.type.equals(type);
     }
 
-    public boolean isText(String text)
+    public boolean isText(CharSequence text)
     {
-        return this.text.equals(text);
+        return text().contentEquals(text);
     }
 }
@@ -0,0 +1,60 @@
+package plt.lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class ByteText implements CharSequence
+{
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    public ByteText(ByteBuffer bytes)
+    {
+        this(bytes.slice(), 0, bytes.remaining());
+    }
+
+    private ByteText(ByteBuffer bytes, int offset, int length)
+    {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length()
+    {
+        return this.length;
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        if(index < 0 || index >= this.length)
+            throw new IndexOutOfBoundsException(index);
+        return (char) (this.bytes.get(this.offset + index) & 0xFF);
+    }
+
+    @Override
+    public ByteText subSequence(int start, int end)
+    {
+        if(start < 0 || end > this.length || start > end)
+            throw new IndexOutOfBoundsException("Range " + start + "-" + end + " is out of bounds!");
+        return new ByteText(this.bytes, this.offset + start, end - start);
+    }
+
+    public ByteBuffer bytes()
+    {
+        return this.bytes.slice(this.offset, this.length);
+    }
+
+    @Override
+    public String toString()
+    {
+        if(this.bytes.hasArray())
+            return new String(this.bytes.array(), this.bytes.arrayOffset() + this.offset, this.length, StandardCharsets.UTF_8);
+        byte[] copy = new byte[this.length];
+        this.bytes.get(this.offset, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+}
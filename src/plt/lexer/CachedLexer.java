@@ -0,0 +1,48 @@
+package plt.lexer;
+
+import plt.provider.Provider;
+
+import java.io.Reader;
+import java.util.List;
+
+public class CachedLexer<T, R extends BasicToken<T>> implements Lexer<T, R>
+{
+    private final Lexer<T, R> lexer;
+    private final TokenCache<T, R> cache;
+
+    public CachedLexer(Lexer<T, R> lexer, TokenCache<T, R> cache)
+    {
+        this.lexer = lexer;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<R> lex(CharSequence text)
+    {
+        List<R> tokens = this.cache.get(text);
+        if(tokens == null)
+        {
+            tokens = this.lexer.lex(text);
+            this.cache.put(text, tokens);
+        }
+        return tokens;
+    }
+
+    @Override
+    public LexResult<R> recover(CharSequence text)
+    {
+        return this.lexer.recover(text);
+    }
+
+    @Override
+    public TokenBuffer<T, R> buffer(CharSequence text)
+    {
+        return this.lexer.buffer(text);
+    }
+
+    @Override
+    public Provider<R> lex(Reader reader)
+    {
+        return this.lexer.lex(reader);
+    }
+}
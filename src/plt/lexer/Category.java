@@ -2,10 +2,31 @@ package plt.lexer;
 
 import java.util.regex.Pattern;
 
-public record Category <T> (T type, Pattern pattern)
+public record Category <T> (T type, Pattern pattern, Scanner scanner)
 {
+    public Category
+    {
+        if((pattern == null) == (scanner == null))
+            throw new RuntimeException("Category " + type + " needs either a pattern or a scanner!");
+    }
+
+    public Category(T type, Pattern pattern)
+    {
+        this(type, pattern, null);
+    }
+
     public Category(T type, String pattern)
     {
         this(type, Pattern.compile(pattern));
     }
+
+    public Category(T type, Scanner scanner)
+    {
+        this(type, null, scanner);
+    }
+
+    public boolean isScanner()
+    {
+        return this.scanner != null;
+    }
 }
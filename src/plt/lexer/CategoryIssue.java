@@ -0,0 +1,19 @@
+package plt.lexer;
+
+import java.util.regex.Pattern;
+
+public record CategoryIssue<T>(Kind kind, int category, T type, String message, Pattern suggestion)
+{
+    public enum Kind
+    {
+        BACKTRACKING,
+        SHADOWED,
+        EMPTY,
+        POSSESSIVE
+    }
+
+    public boolean isHazard()
+    {
+        return this.kind != Kind.POSSESSIVE;
+    }
+}
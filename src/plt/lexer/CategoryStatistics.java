@@ -0,0 +1,5 @@
+package plt.lexer;
+
+public record CategoryStatistics<T>(T type, long finds, long wins, long scanned, long nanos)
+{
+}
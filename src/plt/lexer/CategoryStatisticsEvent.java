@@ -0,0 +1,38 @@
+package plt.lexer;
+
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+
+@Name("plt.lexer.CategoryStatistics")
+@Label("Lexer Category Statistics")
+@Description("Accumulated match statistics of a single lexer category")
+@jdk.jfr.Category({ "PLT", "Lexer" })
+@Period("1 s")
+class CategoryStatisticsEvent extends Event
+{
+    @Label("Lexer")
+    String lexer;
+
+    @Label("Category")
+    int category;
+
+    @Label("Type")
+    String type;
+
+    @Label("Finds")
+    long finds;
+
+    @Label("Wins")
+    long wins;
+
+    @Label("Scanned Characters")
+    long scanned;
+
+    @Label("Matching Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long time;
+}
@@ -0,0 +1,5 @@
+package plt.lexer;
+
+public record Diagnostic(String message, int start, int end, Region region)
+{
+}
@@ -0,0 +1,15 @@
+package plt.lexer;
+
+public record Edit(int offset, int removed, String inserted)
+{
+    public Edit
+    {
+        if(offset < 0 || removed < 0)
+            throw new RuntimeException("Edit offset and removed length must not be negative!");
+    }
+
+    public int delta()
+    {
+        return this.inserted.length() - this.removed;
+    }
+}
@@ -0,0 +1,6 @@
+package plt.lexer;
+
+public interface Engine
+{
+    Search search(CharSequence text);
+}
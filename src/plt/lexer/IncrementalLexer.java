@@ -0,0 +1,168 @@
+package plt.lexer;
+
+import plt.provider.Provider;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IncrementalLexer<T, R extends BasicToken<T>> implements Lexer<T, R>
+{
+    private final RegexLexer<T, R> lexer;
+
+    public IncrementalLexer(RegexLexer<T, R> lexer)
+    {
+        this.lexer = lexer;
+    }
+
+    @Override
+    public TokenList<R> lex(CharSequence text)
+    {
+        Collector collector = new Collector();
+        LineIndex lines = this.lexer.lines(text);
+        RegexLexer<T, R>.Cursor cursor = this.lexer.new Cursor(text, this.lexer.search(text), 0, lines);
+        while (cursor.advance())
+        {
+            collector.add(cursor.dropped() ? null : this.lexer.finish(cursor.token()), cursor.start(), cursor.position(), cursor.reach());
+        }
+        return collector.list(text.length(), lines);
+    }
+
+    @Override
+    public LexResult<R> recover(CharSequence text)
+    {
+        return this.lexer.recover(text);
+    }
+
+    @Override
+    public TokenBuffer<T, R> buffer(CharSequence text)
+    {
+        return this.lexer.buffer(text);
+    }
+
+    @Override
+    public Provider<R> lex(Reader reader)
+    {
+        return this.lexer.lex(reader);
+    }
+
+    public TokenList<R> relex(TokenList<R> previous, Edit edit, CharSequence text)
+    {
+        if(edit.offset() + edit.removed() > previous.length() || previous.length() + edit.delta() != text.length())
+            throw new RuntimeException("Edit does not match the previous and the new text!");
+
+        Collector collector = new Collector();
+        int restart = 0;
+        while (restart < previous.size() && previous.reach(restart) <= edit.offset())
+        {
+            collector.add(previous.token(restart), previous.start(restart), previous.end(restart), previous.reach(restart), previous.shift(restart));
+            restart++;
+        }
+
+        int from = restart == 0 ? 0 : previous.end(restart - 1);
+        LineIndex lines = previous.lines() == null ? null : previous.lines().edit(edit);
+        RegexLexer<T, R>.Cursor cursor = this.lexer.new Cursor(text, this.lexer.search(text), from, lines);
+
+        int unchanged = edit.offset() + edit.inserted().length();
+        int old = restart;
+        while (cursor.advance())
+        {
+            int start = cursor.start();
+            if(start >= unchanged)
+            {
+                int shifted = start - edit.delta();
+                while (old < previous.size() && previous.start(old) < shifted)
+                {
+                    old++;
+                }
+                if(old < previous.size() && previous.start(old) == shifted)
+                {
+                    collector.reach(cursor.reach());
+                    shift(previous, old, edit.delta(), cursor.token().region(), collector);
+                    return collector.list(text.length(), lines);
+                }
+            }
+            collector.add(cursor.dropped() ? null : this.lexer.finish(cursor.token()), start, cursor.position(), cursor.reach());
+        }
+        return collector.list(text.length(), lines);
+    }
+
+    private void shift(TokenList<R> previous, int from, int delta, Region target, Collector collector)
+    {
+        Position origin = target == null ? null : previous.get(from).region().start();
+        int lines = target == null ? 0 : target.start().line() - origin.line();
+        int offsets = target == null ? 0 : target.start().offset() - origin.offset();
+        int i = from;
+        for (; offsets != 0 && i < previous.size() && line(previous, i) == origin.line(); i++)
+        {
+            R token = previous.get(i);
+            Region region = token.region();
+            Position start = shift(region.start(), origin.line(), lines, offsets);
+            Position end = shift(region.end(), origin.line(), lines, offsets);
+            token = this.lexer.move(token, new Region(region.file(), start, end));
+            collector.add(token, previous.start(i) + delta, previous.end(i) + delta, previous.reach(i) + delta);
+        }
+        for (; i < previous.size(); i++)
+        {
+            collector.add(previous.token(i), previous.start(i) + delta, previous.end(i) + delta, previous.reach(i) + delta, previous.shift(i) + lines);
+        }
+    }
+
+    private int line(TokenList<R> previous, int index)
+    {
+        return previous.token(index).region().start().line() + previous.shift(index);
+    }
+
+    private R shift(R token, int lines)
+    {
+        Region region = token.region();
+        Position start = new Position(region.start().line() + lines, region.start().offset());
+        Position end = new Position(region.end().line() + lines, region.end().offset());
+        return this.lexer.move(token, new Region(region.file(), start, end));
+    }
+
+    private Position shift(Position position, int line, int lines, int offsets)
+    {
+        if(position.line() == line)
+            return new Position(position.line() + lines, position.offset() + offsets);
+        return new Position(position.line() + lines, position.offset());
+    }
+
+    private class Collector
+    {
+        private final List<R> tokens = new ArrayList<>();
+        private final IntList starts = new IntList();
+        private final IntList ends = new IntList();
+        private final IntList reaches = new IntList();
+        private final IntList shifts = new IntList();
+        private int reach;
+
+        void reach(int reach)
+        {
+            this.reach = Math.max(this.reach, reach);
+        }
+
+        void add(R token, int start, int end, int reach)
+        {
+            add(token, start, end, reach, 0);
+        }
+
+        void add(R token, int start, int end, int reach, int shift)
+        {
+            reach(reach);
+            if(token == null)
+                return;
+            this.tokens.add(token);
+            this.starts.add(start);
+            this.ends.add(end);
+            this.reaches.add(this.reach);
+            this.shifts.add(shift);
+            this.reach = 0;
+        }
+
+        TokenList<R> list(int length, LineIndex lines)
+        {
+            return new TokenList<>(this.tokens, this.starts.toArray(), this.ends.toArray(), this.reaches.toArray(), length, lines, this.shifts.toArray(), IncrementalLexer.this::shift);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package plt.lexer;
+
+public interface IncrementalLexerFactory<T, R extends BasicToken<T>> extends LexerFactory<T, R>
+{
+    @Override
+    IncrementalLexer<T, R> create();
+}
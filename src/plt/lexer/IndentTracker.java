@@ -0,0 +1,115 @@
+package plt.lexer;
+
+import java.util.Arrays;
+
+final class IndentTracker
+{
+    private final int tab;
+    private int[] levels = new int[16];
+    private int depth;
+    private int walked;
+    private int width;
+    private boolean leading = true;
+    private boolean fresh = true;
+    private boolean consistent = true;
+
+    IndentTracker(int tab)
+    {
+        this.tab = tab;
+    }
+
+    int update(CharSequence text, int start, int end)
+    {
+        walk(text, start);
+        int change = 0;
+        this.consistent = true;
+        if(this.fresh && !isBreak(text, start, end))
+        {
+            change = level(this.width);
+            this.fresh = false;
+        }
+        this.walked = end;
+        this.leading = false;
+        if(end > start && text.charAt(end - 1) == '\n')
+            newline();
+        return change;
+    }
+
+    boolean consistent()
+    {
+        return this.consistent;
+    }
+
+    int close()
+    {
+        int depth = this.depth;
+        this.depth = 0;
+        this.consistent = true;
+        return depth;
+    }
+
+    void walk(CharSequence text, int to)
+    {
+        for (; this.walked < to; this.walked++)
+        {
+            char c = text.charAt(this.walked);
+            if(c == '\n')
+                newline();
+            else if(this.leading && c == ' ')
+                this.width++;
+            else if(this.leading && c == '\t')
+                this.width = (this.width / this.tab + 1) * this.tab;
+            else if(c != '\r')
+                this.leading = false;
+        }
+    }
+
+    void shift(int by)
+    {
+        this.walked -= by;
+    }
+
+    private static boolean isBreak(CharSequence text, int start, int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            char c = text.charAt(i);
+            if(c != '\n' && c != '\r')
+                return false;
+        }
+        return end > start;
+    }
+
+    private void newline()
+    {
+        this.fresh = true;
+        this.leading = true;
+        this.width = 0;
+    }
+
+    private int level(int width)
+    {
+        int top = this.depth == 0 ? 0 : this.levels[this.depth - 1];
+        if(width > top)
+        {
+            push(width);
+            return 1;
+        }
+        int dedents = 0;
+        while (this.depth > 0 && this.levels[this.depth - 1] > width)
+        {
+            this.depth--;
+            dedents++;
+        }
+        top = this.depth == 0 ? 0 : this.levels[this.depth - 1];
+        this.consistent = top == width;
+        return -dedents;
+    }
+
+    private void push(int width)
+    {
+        if(this.depth == this.levels.length)
+            this.levels = Arrays.copyOf(this.levels, this.depth * 2);
+        this.levels[this.depth++] = width;
+    }
+}
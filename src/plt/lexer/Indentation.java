@@ -0,0 +1,17 @@
+package plt.lexer;
+
+public record Indentation<T>(T indent, T dedent, int tab)
+{
+    public Indentation
+    {
+        if(indent == null || dedent == null)
+            throw new RuntimeException("Indentation needs an indent and a dedent type!");
+        if(tab <= 0)
+            throw new RuntimeException("Tab width " + tab + " has to be positive!");
+    }
+
+    public Indentation(T indent, T dedent)
+    {
+        this(indent, dedent, 8);
+    }
+}
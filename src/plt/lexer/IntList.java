@@ -0,0 +1,39 @@
+package plt.lexer;
+
+import java.util.Arrays;
+
+class IntList
+{
+    private int[] values = new int[64];
+    private int size;
+
+    void add(int value)
+    {
+        if(this.size == this.values.length)
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        this.values[this.size++] = value;
+    }
+
+    void addAll(IntList values)
+    {
+        for (int i = 0; i < values.size; i++)
+        {
+            add(values.values[i]);
+        }
+    }
+
+    int get(int index)
+    {
+        return this.values[index];
+    }
+
+    int size()
+    {
+        return this.size;
+    }
+
+    int[] toArray()
+    {
+        return Arrays.copyOf(this.values, this.size);
+    }
+}
@@ -0,0 +1,86 @@
+package plt.lexer;
+
+import java.util.Map;
+
+public final class KeywordTable<T>
+{
+    private final String[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int shortest;
+    private final int longest;
+
+    private KeywordTable(Map<String, T> keywords)
+    {
+        int capacity = Integer.highestOneBit(Math.max(keywords.size(), 1) * 4 - 1);
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        int shortest = Integer.MAX_VALUE;
+        int longest = 0;
+        for (Map.Entry<String, T> entry : keywords.entrySet())
+        {
+            String key = entry.getKey();
+            int slot = hash(key, 0, key.length()) & this.mask;
+            while (this.keys[slot] != null)
+            {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = key;
+            this.values[slot] = entry.getValue();
+            shortest = Math.min(shortest, key.length());
+            longest = Math.max(longest, key.length());
+        }
+        this.shortest = shortest;
+        this.longest = longest;
+    }
+
+    public static <T> KeywordTable<T> of(Map<String, T> keywords)
+    {
+        return new KeywordTable<>(keywords);
+    }
+
+    public T get(CharSequence text)
+    {
+        return get(text, 0, text.length());
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(CharSequence text, int start, int end)
+    {
+        int length = end - start;
+        if(length < this.shortest || length > this.longest)
+            return null;
+        int slot = hash(text, start, end) & this.mask;
+        String key;
+        while ((key = this.keys[slot]) != null)
+        {
+            if(matches(key, text, start, length))
+                return (T) this.values[slot];
+            slot = (slot + 1) & this.mask;
+        }
+        return null;
+    }
+
+    static boolean matches(String key, CharSequence text, int start, int length)
+    {
+        if(key.length() != length)
+            return false;
+        for (int i = 0; i < length; i++)
+        {
+            if(key.charAt(i) != text.charAt(start + i))
+                return false;
+        }
+        return true;
+    }
+
+    static int hash(CharSequence text, int start, int end)
+    {
+        int hash = 0;
+        for (int i = start; i < end; i++)
+        {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
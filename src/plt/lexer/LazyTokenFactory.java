@@ -0,0 +1,13 @@
+package plt.lexer;
+
+public interface LazyTokenFactory<T, V extends BasicToken<T>> extends SymbolTokenFactory<T, V>
+{
+    @Override
+    V create(CharSequence text, T type, Region region, int symbol);
+
+    @Override
+    default V create(String text, T type, Region region, int symbol)
+    {
+        return create((CharSequence) text, type, region, symbol);
+    }
+}
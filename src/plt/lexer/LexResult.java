@@ -0,0 +1,11 @@
+package plt.lexer;
+
+import java.util.List;
+
+public record LexResult<R>(List<R> tokens, List<Diagnostic> diagnostics)
+{
+    public boolean isValid()
+    {
+        return this.diagnostics.isEmpty();
+    }
+}
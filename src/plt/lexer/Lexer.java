@@ -1,8 +1,31 @@
 package plt.lexer;
 
+import plt.provider.Provider;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.util.List;
 
 public interface Lexer<T, R extends BasicToken<T>>
 {
-    List<R> lex(String text);
+    List<R> lex(CharSequence text);
+
+    LexResult<R> recover(CharSequence text);
+
+    TokenBuffer<T, R> buffer(CharSequence text);
+
+    Provider<R> lex(Reader reader);
+
+    default List<R> lex(ByteBuffer bytes)
+    {
+        return lex(new ByteText(bytes));
+    }
+
+    default Provider<R> lex(ReadableByteChannel channel, Charset charset)
+    {
+        return lex(Channels.newReader(channel, charset));
+    }
 }
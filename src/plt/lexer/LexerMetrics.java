@@ -0,0 +1,165 @@
+package plt.lexer;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LexerMetrics<T> implements AutoCloseable
+{
+    private static final Set<LexerMetrics<?>> BOUND = Collections.newSetFromMap(new WeakHashMap<>());
+    private static final Runnable CATEGORY_EVENTS = () -> bound().forEach(LexerMetrics::emitCategories);
+    private static final Runnable LEXER_EVENTS = () -> bound().forEach(LexerMetrics::emitLexer);
+    private static boolean hooked;
+
+    private final String name;
+    private final LongAdder transformed = new LongAdder();
+    private final LongAdder filtered = new LongAdder();
+    private List<T> types = List.of();
+    private LongAdder[] finds = new LongAdder[0];
+    private LongAdder[] wins = new LongAdder[0];
+    private LongAdder[] scanned = new LongAdder[0];
+    private LongAdder[] nanos = new LongAdder[0];
+
+    public LexerMetrics()
+    {
+        this("lexer");
+    }
+
+    public LexerMetrics(String name)
+    {
+        this.name = name;
+    }
+
+    public String name()
+    {
+        return this.name;
+    }
+
+    public synchronized LexerStatistics<T> snapshot()
+    {
+        List<CategoryStatistics<T>> categories = new ArrayList<>();
+        for (int i = 0; i < this.types.size(); i++)
+        {
+            categories.add(new CategoryStatistics<>(this.types.get(i), this.finds[i].sum(), this.wins[i].sum(), this.scanned[i].sum(), this.nanos[i].sum()));
+        }
+        return new LexerStatistics<>(categories, this.transformed.sum(), this.filtered.sum());
+    }
+
+    public synchronized void reset()
+    {
+        for (int i = 0; i < this.types.size(); i++)
+        {
+            this.finds[i].reset();
+            this.wins[i].reset();
+            this.scanned[i].reset();
+            this.nanos[i].reset();
+        }
+        this.transformed.reset();
+        this.filtered.reset();
+    }
+
+    @Override
+    public void close()
+    {
+        synchronized (BOUND)
+        {
+            BOUND.remove(this);
+        }
+    }
+
+    synchronized void bind(List<T> types)
+    {
+        if(!this.types.isEmpty() && !this.types.equals(types))
+            throw new RuntimeException("Metrics " + this.name + " are already bound to the categories " + this.types + "!");
+        if(this.types.isEmpty())
+        {
+            this.types = List.copyOf(types);
+            this.finds = adders(types.size());
+            this.wins = adders(types.size());
+            this.scanned = adders(types.size());
+            this.nanos = adders(types.size());
+        }
+        synchronized (BOUND)
+        {
+            BOUND.add(this);
+            if(!hooked)
+            {
+                FlightRecorder.addPeriodicEvent(CategoryStatisticsEvent.class, CATEGORY_EVENTS);
+                FlightRecorder.addPeriodicEvent(LexerStatisticsEvent.class, LEXER_EVENTS);
+                hooked = true;
+            }
+        }
+    }
+
+    void attempt(int category, int scanned, long nanos)
+    {
+        this.finds[category].increment();
+        this.scanned[category].add(scanned);
+        this.nanos[category].add(nanos);
+    }
+
+    void win(int category)
+    {
+        this.wins[category].increment();
+    }
+
+    void transformed()
+    {
+        this.transformed.increment();
+    }
+
+    void filtered()
+    {
+        this.filtered.increment();
+    }
+
+    private void emitCategories()
+    {
+        LexerStatistics<T> snapshot = snapshot();
+        for (int i = 0; i < snapshot.categories().size(); i++)
+        {
+            CategoryStatistics<T> category = snapshot.categories().get(i);
+            CategoryStatisticsEvent event = new CategoryStatisticsEvent();
+            event.lexer = this.name;
+            event.category = i;
+            event.type = String.valueOf(category.type());
+            event.finds = category.finds();
+            event.wins = category.wins();
+            event.scanned = category.scanned();
+            event.time = category.nanos();
+            event.commit();
+        }
+    }
+
+    private void emitLexer()
+    {
+        LexerStatisticsEvent event = new LexerStatisticsEvent();
+        event.lexer = this.name;
+        event.transformed = this.transformed.sum();
+        event.filtered = this.filtered.sum();
+        event.commit();
+    }
+
+    private static List<LexerMetrics<?>> bound()
+    {
+        synchronized (BOUND)
+        {
+            return new ArrayList<>(BOUND);
+        }
+    }
+
+    private static LongAdder[] adders(int size)
+    {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++)
+        {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,11 @@
+package plt.lexer;
+
+import java.util.List;
+
+public record LexerStatistics<T>(List<CategoryStatistics<T>> categories, long transformed, long filtered)
+{
+    public long nanos()
+    {
+        return this.categories.stream().mapToLong(CategoryStatistics::nanos).sum();
+    }
+}
@@ -0,0 +1,24 @@
+package plt.lexer;
+
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+@Name("plt.lexer.LexerStatistics")
+@Label("Lexer Statistics")
+@Description("Accumulated token post-processing statistics of a lexer")
+@jdk.jfr.Category({ "PLT", "Lexer" })
+@Period("1 s")
+class LexerStatisticsEvent extends Event
+{
+    @Label("Lexer")
+    String lexer;
+
+    @Label("Transformed Tokens")
+    long transformed;
+
+    @Label("Filtered Tokens")
+    long filtered;
+}
@@ -0,0 +1,178 @@
+package plt.lexer;
+
+import plt.lexer.automaton.Automaton;
+import plt.lexer.automaton.Prefilter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public final class LexerTables
+{
+    private static final byte[] MAGIC = { 'P', 'L', 'T', 'T' };
+    private static final int VERSION = 4;
+
+    private final String fingerprint;
+    private final List<String> patterns;
+    private final int[] flags;
+    private final Prefilter prefilter;
+    private final Automaton automaton;
+
+    LexerTables(String fingerprint, List<Pattern> patterns, Prefilter prefilter, Automaton automaton)
+    {
+        this(fingerprint, patterns.stream().map(p -> p == null ? null : p.pattern()).toList(), patterns.stream().mapToInt(p -> p == null ? 0 : p.flags()).toArray(), prefilter, automaton);
+    }
+
+    private LexerTables(String fingerprint, List<String> patterns, int[] flags, Prefilter prefilter, Automaton automaton)
+    {
+        this.fingerprint = fingerprint;
+        this.patterns = patterns;
+        this.flags = flags;
+        this.prefilter = prefilter;
+        this.automaton = automaton;
+    }
+
+    public static LexerTables load(Path file)
+    {
+        try (InputStream input = Files.newInputStream(file))
+        {
+            return read(input);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static LexerTables resource(Class<?> owner, String name)
+    {
+        try (InputStream input = owner.getResourceAsStream(name))
+        {
+            if(input == null)
+                throw new RuntimeException("Lexer tables " + name + " not found!");
+            return read(input);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static LexerTables read(InputStream stream) throws IOException
+    {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(stream));
+        byte[] magic = new byte[MAGIC.length];
+        input.readFully(magic);
+        if(!Arrays.equals(magic, MAGIC))
+            throw new RuntimeException("Input is not a lexer table file!");
+        int version = input.readInt();
+        if(version != VERSION)
+            throw new RuntimeException("Unsupported lexer table version " + version + "!");
+        String fingerprint = string(input);
+        int[] flags = new int[input.readInt()];
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < flags.length; i++)
+        {
+            patterns.add(input.readBoolean() ? string(input) : null);
+            flags[i] = input.readInt();
+        }
+        Prefilter prefilter = input.readBoolean() ? Prefilter.read(input) : null;
+        Automaton automaton = input.readBoolean() ? Automaton.read(input) : null;
+        return new LexerTables(fingerprint, patterns, flags, prefilter, automaton);
+    }
+
+    public void save(Path file)
+    {
+        try (OutputStream output = Files.newOutputStream(file))
+        {
+            write(output);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(OutputStream stream) throws IOException
+    {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+        output.write(MAGIC);
+        output.writeInt(VERSION);
+        string(output, this.fingerprint);
+        output.writeInt(this.patterns.size());
+        for (int i = 0; i < this.patterns.size(); i++)
+        {
+            output.writeBoolean(this.patterns.get(i) != null);
+            if(this.patterns.get(i) != null)
+                string(output, this.patterns.get(i));
+            output.writeInt(this.flags[i]);
+        }
+        output.writeBoolean(this.prefilter != null);
+        if(this.prefilter != null)
+            this.prefilter.write(output);
+        output.writeBoolean(this.automaton != null);
+        if(this.automaton != null)
+            this.automaton.write(output);
+        output.flush();
+    }
+
+    String fingerprint()
+    {
+        return this.fingerprint;
+    }
+
+    List<Pattern> patterns(List<Pattern> compiled)
+    {
+        List<Pattern> patterns = new ArrayList<>();
+        for (int i = 0; i < this.patterns.size(); i++)
+        {
+            Pattern pattern = compiled.get(i);
+            if(this.patterns.get(i) == null)
+                patterns.add(null);
+            else if(pattern != null && pattern.pattern().equals(this.patterns.get(i)) && pattern.flags() == this.flags[i])
+                patterns.add(pattern);
+            else
+                patterns.add(Pattern.compile(this.patterns.get(i), this.flags[i]));
+        }
+        return patterns;
+    }
+
+    Prefilter prefilter()
+    {
+        return this.prefilter;
+    }
+
+    Automaton automaton()
+    {
+        return this.automaton;
+    }
+
+    private static String string(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+        if(length < 0)
+            throw new RuntimeException("Invalid string length " + length + "!");
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void string(DataOutputStream output, String text) throws IOException
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
@@ -0,0 +1,78 @@
+package plt.lexer;
+
+import java.util.Arrays;
+
+public class LineIndex
+{
+    private final int[] newlines;
+
+    LineIndex(int[] newlines)
+    {
+        this.newlines = newlines;
+    }
+
+    public static LineIndex of(CharSequence text)
+    {
+        return new LineIndex(newlines(text, 0, text.length()).toArray());
+    }
+
+    static IntList newlines(CharSequence text, int from, int to)
+    {
+        IntList newlines = new IntList();
+        for (int i = from; i < to; i++)
+        {
+            if(text.charAt(i) == '\n')
+                newlines.add(i);
+        }
+        return newlines;
+    }
+
+    public int lines()
+    {
+        return this.newlines.length + 1;
+    }
+
+    public int line(int position)
+    {
+        int low = 0;
+        int high = this.newlines.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if(this.newlines[middle] < position)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low + 1;
+    }
+
+    public Position position(int position)
+    {
+        int line = line(position);
+        int anchor = line == 1 ? 0 : this.newlines[line - 2];
+        return new Position(line, position - anchor);
+    }
+
+    public Region region(int start, int end)
+    {
+        return new Region(null, position(start), position(end));
+    }
+
+    public LineIndex edit(Edit edit)
+    {
+        int from = line(edit.offset()) - 1;
+        int to = line(edit.offset() + edit.removed()) - 1;
+        IntList inserted = newlines(edit.inserted(), 0, edit.inserted().length());
+        int[] newlines = Arrays.copyOf(this.newlines, from + inserted.size() + this.newlines.length - to);
+        for (int i = 0; i < inserted.size(); i++)
+        {
+            newlines[from + i] = edit.offset() + inserted.get(i);
+        }
+        for (int i = to; i < this.newlines.length; i++)
+        {
+            newlines[from + inserted.size() + i - to] = this.newlines[i] + edit.delta();
+        }
+        return new LineIndex(newlines);
+    }
+}
@@ -0,0 +1,123 @@
+package plt.lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+final class LiteralTrie implements Scanner
+{
+    private final List<String> literals;
+    private final char[][] keys;
+    private final int[][] children;
+    private final boolean[] terminal;
+
+    private LiteralTrie(List<String> literals, char[][] keys, int[][] children, boolean[] terminal)
+    {
+        this.literals = literals;
+        this.keys = keys;
+        this.children = children;
+        this.terminal = terminal;
+    }
+
+    static LiteralTrie of(String ... literals)
+    {
+        if(literals.length == 0)
+            throw new RuntimeException("Literal set needs at least one literal!");
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String literal : literals)
+        {
+            if(literal.isEmpty())
+                throw new RuntimeException("Literal set can not contain the empty string!");
+            sorted.add(literal);
+        }
+
+        List<TreeMap<Character, Integer>> nodes = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        nodes.add(new TreeMap<>());
+        terminal.add(false);
+        for (String literal : sorted)
+        {
+            int node = 0;
+            for (int i = 0; i < literal.length(); i++)
+            {
+                Integer next = nodes.get(node).get(literal.charAt(i));
+                if(next == null)
+                {
+                    next = nodes.size();
+                    nodes.get(node).put(literal.charAt(i), next);
+                    nodes.add(new TreeMap<>());
+                    terminal.add(false);
+                }
+                node = next;
+            }
+            terminal.set(node, true);
+        }
+
+        char[][] keys = new char[nodes.size()][];
+        int[][] children = new int[nodes.size()][];
+        boolean[] accepting = new boolean[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++)
+        {
+            TreeMap<Character, Integer> edges = nodes.get(i);
+            keys[i] = new char[edges.size()];
+            children[i] = new int[edges.size()];
+            int j = 0;
+            for (var edge : edges.entrySet())
+            {
+                keys[i][j] = edge.getKey();
+                children[i][j++] = edge.getValue();
+            }
+            accepting[i] = terminal.get(i);
+        }
+        return new LiteralTrie(List.copyOf(sorted), keys, children, accepting);
+    }
+
+    @Override
+    public int scan(CharSequence text, int position)
+    {
+        int node = 0;
+        int match = -1;
+        int length = text.length();
+        for (int end = position; end < length; end++)
+        {
+            node = child(node, text.charAt(end));
+            if(node < 0)
+                break;
+            if(this.terminal[node])
+                match = end + 1 - position;
+        }
+        return match;
+    }
+
+    @Override
+    public boolean isStart(char c)
+    {
+        return child(0, c) >= 0;
+    }
+
+    @Override
+    public boolean isByteSafe()
+    {
+        return this.literals.stream().allMatch(Scanners::isAscii);
+    }
+
+    @Override
+    public String description()
+    {
+        return toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "literals" + this.literals;
+    }
+
+    private int child(int node, char c)
+    {
+        int index = Arrays.binarySearch(this.keys[node], c);
+        return index < 0 ? -1 : this.children[node][index];
+    }
+}
@@ -0,0 +1,73 @@
+package plt.lexer;
+
+final class MeasuredEngine implements Engine
+{
+    private final Engine engine;
+    private final LexerMetrics<?> metrics;
+
+    MeasuredEngine(Engine engine, LexerMetrics<?> metrics)
+    {
+        this.engine = engine;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Search search(CharSequence text)
+    {
+        return new MeasuredSearch(this.engine.search(text));
+    }
+
+    private class MeasuredSearch implements Search
+    {
+        private final Search search;
+
+        private MeasuredSearch(Search search)
+        {
+            this.search = search;
+        }
+
+        @Override
+        public boolean find(int from)
+        {
+            long start = System.nanoTime();
+            boolean found = this.search.find(from);
+            long time = System.nanoTime() - start;
+            if(found)
+            {
+                metrics.attempt(this.search.category(), this.search.end() - from, time);
+                metrics.win(this.search.category());
+            }
+            return found;
+        }
+
+        @Override
+        public int start()
+        {
+            return this.search.start();
+        }
+
+        @Override
+        public int end()
+        {
+            return this.search.end();
+        }
+
+        @Override
+        public int category()
+        {
+            return this.search.category();
+        }
+
+        @Override
+        public boolean hitEnd()
+        {
+            return this.search.hitEnd();
+        }
+
+        @Override
+        public int reach()
+        {
+            return this.search.reach();
+        }
+    }
+}
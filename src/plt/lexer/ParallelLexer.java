@@ -0,0 +1,181 @@
+package plt.lexer;
+
+import plt.provider.Provider;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class ParallelLexer<T, R extends BasicToken<T>> implements Lexer<T, R>
+{
+    private final RegexLexer<T, R> lexer;
+    private final ForkJoinPool pool;
+    private final int size;
+
+    public ParallelLexer(RegexLexer<T, R> lexer, ForkJoinPool pool, int size)
+    {
+        if(size <= 0)
+            throw new RuntimeException("Chunk size has to be positive!");
+        this.lexer = lexer;
+        this.pool = pool;
+        this.size = size;
+    }
+
+    private record Chunk<R>(List<R> tokens, int[] starts, int[] ends, int from, int cursor, boolean exhausted)
+    {
+        int advance(int cursor, int index)
+        {
+            while (index < this.starts.length && this.starts[index] < cursor)
+            {
+                index++;
+            }
+            return index;
+        }
+
+        boolean synchronizes(int cursor, int index)
+        {
+            int resume = index == 0 ? this.from : this.ends[index - 1];
+            return resume <= cursor && (index < this.starts.length || this.exhausted);
+        }
+    }
+
+    @Override
+    public List<R> lex(CharSequence text)
+    {
+        int[] bounds = split(text);
+        if(bounds.length <= 2)
+            return this.lexer.lex(text);
+
+        LineIndex lines = this.lexer.positions() ? index(text, bounds) : null;
+        List<ForkJoinTask<Chunk<R>>> tasks = new ArrayList<>();
+        for (int i = 0; i < bounds.length - 1; i++)
+        {
+            int from = bounds[i];
+            int to = bounds[i + 1];
+            tasks.add(this.pool.submit(() -> lex(text, from, to, lines)));
+        }
+
+        List<Chunk<R>> chunks = new ArrayList<>();
+        for (ForkJoinTask<Chunk<R>> task : tasks)
+        {
+            chunks.add(task.join());
+        }
+        return this.lexer.finish(stitch(text, bounds, chunks, lines));
+    }
+
+    @Override
+    public LexResult<R> recover(CharSequence text)
+    {
+        return this.lexer.recover(text);
+    }
+
+    @Override
+    public TokenBuffer<T, R> buffer(CharSequence text)
+    {
+        return this.lexer.buffer(text);
+    }
+
+    @Override
+    public Provider<R> lex(Reader reader)
+    {
+        return this.lexer.lex(reader);
+    }
+
+    private int[] split(CharSequence text)
+    {
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int position = this.size;
+        while (position < text.length())
+        {
+            while (position < text.length() && text.charAt(position - 1) != '\n')
+            {
+                position++;
+            }
+            if(position < text.length())
+                bounds.add(position);
+            position += this.size;
+        }
+        bounds.add(text.length());
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private LineIndex index(CharSequence text, int[] bounds)
+    {
+        List<ForkJoinTask<IntList>> tasks = new ArrayList<>();
+        for (int i = 0; i < bounds.length - 1; i++)
+        {
+            int from = bounds[i];
+            int to = bounds[i + 1];
+            tasks.add(this.pool.submit(() -> LineIndex.newlines(text, from, to)));
+        }
+
+        IntList newlines = new IntList();
+        for (ForkJoinTask<IntList> task : tasks)
+        {
+            newlines.addAll(task.join());
+        }
+        return new LineIndex(newlines.toArray());
+    }
+
+    private Chunk<R> lex(CharSequence text, int from, int to, LineIndex lines)
+    {
+        RegexLexer<T, R>.Cursor cursor = this.lexer.new Cursor(text, this.lexer.search(text), from, lines);
+        List<R> tokens = new ArrayList<>();
+        IntList starts = new IntList();
+        IntList ends = new IntList();
+        boolean found = true;
+        while (found && cursor.position() < to)
+        {
+            found = cursor.advance();
+            if(found)
+            {
+                tokens.add(cursor.dropped() ? null : cursor.token());
+                starts.add(cursor.start());
+                ends.add(cursor.position());
+            }
+        }
+        int end = found ? cursor.position() : text.length();
+        return new Chunk<>(tokens, starts.toArray(), ends.toArray(), from, end, !found);
+    }
+
+    private List<R> stitch(CharSequence text, int[] bounds, List<Chunk<R>> chunks, LineIndex lines)
+    {
+        List<R> tokens = new ArrayList<>();
+        int cursor = 0;
+        Search search = null;
+        for (int i = 0; i < chunks.size() && cursor < text.length(); i++)
+        {
+            Chunk<R> chunk = chunks.get(i);
+            if(cursor >= chunk.cursor())
+                continue;
+
+            int next = chunk.advance(cursor, 0);
+            int index = chunk.synchronizes(cursor, next) ? next : -1;
+            if(index == -1)
+            {
+                if(search == null)
+                    search = this.lexer.search(text);
+                RegexLexer<T, R>.Cursor relex = this.lexer.new Cursor(text, search, cursor, lines);
+                while (index == -1 && relex.position() < bounds[i + 1])
+                {
+                    if(!relex.advance())
+                        return tokens;
+                    tokens.add(relex.dropped() ? null : relex.token());
+                    next = chunk.advance(relex.position(), next);
+                    if(chunk.synchronizes(relex.position(), next))
+                        index = next;
+                }
+                cursor = relex.position();
+                if(index == -1)
+                    continue;
+            }
+
+            tokens.addAll(chunk.tokens().subList(index, chunk.tokens().size()));
+            cursor = chunk.cursor();
+        }
+        return tokens;
+    }
+}
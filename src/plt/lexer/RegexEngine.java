@@ -0,0 +1,428 @@
+package plt.lexer;
+
+import plt.lexer.automaton.Prefilter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class RegexEngine implements Engine
+{
+    private final List<Pattern> patterns;
+    private final Scanner[] scanners;
+    private final boolean lookahead;
+    private final Prefilter prefilter;
+    private final LexerMetrics<?> metrics;
+
+    public RegexEngine(List<Pattern> patterns)
+    {
+        this(patterns, false);
+    }
+
+    public RegexEngine(List<Pattern> patterns, boolean lookahead)
+    {
+        this(patterns, lookahead, null);
+    }
+
+    public RegexEngine(List<Pattern> patterns, boolean lookahead, Prefilter prefilter)
+    {
+        this(patterns, lookahead, prefilter, null);
+    }
+
+    public RegexEngine(List<Pattern> patterns, boolean lookahead, Prefilter prefilter, LexerMetrics<?> metrics)
+    {
+        this(patterns, null, lookahead, prefilter, metrics);
+    }
+
+    public RegexEngine(List<Pattern> patterns, List<Scanner> scanners, boolean lookahead, Prefilter prefilter, LexerMetrics<?> metrics)
+    {
+        this.patterns = patterns;
+        this.scanners = scanners == null || scanners.stream().allMatch(s -> s == null) ? null : scanners.toArray(new Scanner[0]);
+        this.lookahead = lookahead;
+        this.prefilter = prefilter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Search search(CharSequence text)
+    {
+        if(this.metrics != null)
+            return new MeasuredSearch(this.patterns, this.scanners, text, this.lookahead, this.prefilter, this.metrics);
+        return new RegexSearch(this.patterns, this.scanners, text, this.lookahead, this.prefilter);
+    }
+
+    private static List<Matcher> matchers(List<Pattern> patterns, CharSequence text)
+    {
+        return patterns.stream()
+                .map(p -> p == null ? null : p.matcher(text)
+                        .useTransparentBounds(true)
+                        .useAnchoringBounds(false))
+                .toList();
+    }
+
+    private static class RegexSearch implements Search
+    {
+        private static final int UNKNOWN = -2;
+        private static final int NONE = -1;
+
+        private final List<Pattern> patterns;
+        private final Scanner[] scanners;
+        private final CharSequence text;
+        private final List<Matcher> matchers;
+        private final int length;
+        private final boolean lookahead;
+        private final Prefilter prefilter;
+        private final int[] starts;
+        private final int[] ends;
+        private final boolean[] hits;
+        private int from;
+        private int index = -1;
+        private boolean hit;
+        private boolean scanning;
+        private TrackingSequence tracking;
+        private List<Matcher> tracked;
+
+        private RegexSearch(List<Pattern> patterns, Scanner[] scanners, CharSequence text, boolean lookahead, Prefilter prefilter)
+        {
+            this.patterns = patterns;
+            this.scanners = scanners;
+            this.text = text;
+            this.matchers = matchers(patterns, text);
+            this.length = text.length();
+            this.lookahead = lookahead;
+            this.prefilter = prefilter;
+            this.starts = new int[matchers.size()];
+            this.ends = new int[matchers.size()];
+            this.hits = new boolean[matchers.size()];
+            Arrays.fill(this.starts, UNKNOWN);
+        }
+
+        @Override
+        public boolean find(int from)
+        {
+            this.from = from;
+            this.index = this.prefilter == null ? getBestMatcherIndex(from) : prefiltered(from);
+            return this.index != -1;
+        }
+
+        @Override
+        public int start()
+        {
+            return this.starts[this.index];
+        }
+
+        @Override
+        public int end()
+        {
+            return this.ends[this.index];
+        }
+
+        @Override
+        public int category()
+        {
+            return this.index;
+        }
+
+        @Override
+        public boolean hitEnd()
+        {
+            if(this.index == -1)
+                return true;
+            if(this.prefilter != null)
+                return this.hit || (this.scanning && scannedEnd());
+            int start = start();
+            for(int i = 0; i < this.matchers.size(); i++)
+            {
+                if(this.hits[i] && reachesEnd(i, this.from, i <= this.index ? start : start - 1))
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int reach()
+        {
+            if(this.prefilter != null)
+                return scanned();
+            int start = start();
+            int reach = end();
+            for(int i = 0; i < this.matchers.size(); i++)
+            {
+                int to = i <= this.index ? start : start - 1;
+                for(int position = this.from; position <= to; position++)
+                {
+                    reach = Math.max(reach, attempt(i, position));
+                }
+            }
+            return reach;
+        }
+
+        private int prefiltered(int from)
+        {
+            this.hit = false;
+            this.scanning = false;
+            for(int position = from; position < this.length; position++)
+            {
+                for(int category : this.prefilter.candidates(this.text.charAt(position)))
+                {
+                    int end;
+                    if(this.scanners != null && this.scanners[category] != null)
+                    {
+                        this.scanning = true;
+                        int length = scan(category, this.scanners[category], position);
+                        end = length > 0 ? position + length : -1;
+                    }
+                    else
+                    {
+                        Matcher matcher = this.matchers.get(category);
+                        matcher.region(position, this.length);
+                        end = lookingAt(category, matcher) ? matcher.end() : -1;
+                        this.hit |= matcher.hitEnd();
+                    }
+                    if(end != -1)
+                    {
+                        this.starts[category] = position;
+                        this.ends[category] = end;
+                        return category;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private int scanned()
+        {
+            int start = start();
+            int reach = end();
+            for(int position = this.from; position <= start; position++)
+            {
+                for(int category : this.prefilter.candidates(this.text.charAt(position)))
+                {
+                    reach = Math.max(reach, attempt(category, position));
+                    if(position == start && category == this.index)
+                        break;
+                }
+            }
+            return reach;
+        }
+
+        private boolean scannedEnd()
+        {
+            int start = start();
+            for(int position = this.from; position <= start; position++)
+            {
+                for(int category : this.prefilter.candidates(this.text.charAt(position)))
+                {
+                    if(this.scanners[category] != null && attempt(category, position) > this.length)
+                        return true;
+                    if(position == start && category == this.index)
+                        break;
+                }
+            }
+            return false;
+        }
+
+        private int attempt(int category, int position)
+        {
+            if(this.tracked == null)
+            {
+                this.tracking = new TrackingSequence(this.text);
+                this.tracked = matchers(this.patterns, this.tracking);
+            }
+            this.tracking.reached = position;
+            if(this.scanners != null && this.scanners[category] != null)
+            {
+                this.scanners[category].scan(this.tracking, position);
+                return this.tracking.reached >= this.length ? this.length + 1 : this.tracking.reached;
+            }
+            Matcher matcher = this.tracked.get(category);
+            matcher.region(position, this.length);
+            matcher.lookingAt();
+            return matcher.hitEnd() ? this.length + 1 : this.tracking.reached;
+        }
+
+        private int getBestMatcherIndex(int start)
+        {
+            int bestStart = Integer.MAX_VALUE;
+            int index = -1;
+            for(int i = 0; i < this.matchers.size(); i++)
+            {
+                if(!this.lookahead || (this.starts[i] != NONE && this.starts[i] < start))
+                    search(i, start);
+                if(this.starts[i] != NONE && this.starts[i] < bestStart)
+                {
+                    bestStart = this.starts[i];
+                    index = i;
+                }
+            }
+            return index;
+        }
+
+        private void search(int category, int start)
+        {
+            if(this.scanners != null && this.scanners[category] != null)
+            {
+                this.hits[category] = true;
+                seek(category, this.scanners[category], start);
+                return;
+            }
+            Matcher matcher = this.matchers.get(category);
+            boolean found = find(category, matcher, start);
+            this.starts[category] = found ? matcher.start() : NONE;
+            this.ends[category] = found ? matcher.end() : NONE;
+            this.hits[category] = matcher.hitEnd();
+        }
+
+        boolean find(int category, Matcher matcher, int from)
+        {
+            return matcher.find(from);
+        }
+
+        int seek(int category, Scanner scanner, int start)
+        {
+            this.starts[category] = NONE;
+            this.ends[category] = NONE;
+            for(int position = start; position < this.length; position++)
+            {
+                int length = scanner.scan(this.text, position);
+                if(length > 0)
+                {
+                    this.starts[category] = position;
+                    this.ends[category] = position + length;
+                    return position + length;
+                }
+            }
+            return NONE;
+        }
+
+        boolean lookingAt(int category, Matcher matcher)
+        {
+            return matcher.lookingAt();
+        }
+
+        int scan(int category, Scanner scanner, int position)
+        {
+            return scanner.scan(this.text, position);
+        }
+
+        private boolean reachesEnd(int category, int from, int to)
+        {
+            Matcher matcher = this.matchers.get(category);
+            for(int position = from; position <= to; position++)
+            {
+                if(matcher == null)
+                {
+                    if(attempt(category, position) > this.length)
+                        return true;
+                    continue;
+                }
+                matcher.region(position, this.length);
+                matcher.lookingAt();
+                if(matcher.hitEnd())
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private static class MeasuredSearch extends RegexSearch
+    {
+        private final LexerMetrics<?> metrics;
+        private final int length;
+
+        private MeasuredSearch(List<Pattern> patterns, Scanner[] scanners, CharSequence text, boolean lookahead, Prefilter prefilter, LexerMetrics<?> metrics)
+        {
+            super(patterns, scanners, text, lookahead, prefilter);
+            this.metrics = metrics;
+            this.length = text.length();
+        }
+
+        @Override
+        public boolean find(int from)
+        {
+            boolean found = super.find(from);
+            if(found)
+                this.metrics.win(category());
+            return found;
+        }
+
+        @Override
+        boolean find(int category, Matcher matcher, int from)
+        {
+            long start = System.nanoTime();
+            boolean found = matcher.find(from);
+            long time = System.nanoTime() - start;
+            this.metrics.attempt(category, (found ? matcher.end() : matcher.regionEnd()) - from, time);
+            return found;
+        }
+
+        @Override
+        boolean lookingAt(int category, Matcher matcher)
+        {
+            long start = System.nanoTime();
+            boolean found = matcher.lookingAt();
+            long time = System.nanoTime() - start;
+            int from = matcher.regionStart();
+            this.metrics.attempt(category, found ? Math.max(matcher.end() - from, 1) : matcher.hitEnd() ? matcher.regionEnd() - from : 1, time);
+            return found;
+        }
+
+        @Override
+        int seek(int category, Scanner scanner, int start)
+        {
+            long begin = System.nanoTime();
+            int end = super.seek(category, scanner, start);
+            long time = System.nanoTime() - begin;
+            this.metrics.attempt(category, Math.max((end == -1 ? this.length : end) - start, 1), time);
+            return end;
+        }
+
+        @Override
+        int scan(int category, Scanner scanner, int position)
+        {
+            long start = System.nanoTime();
+            int length = super.scan(category, scanner, position);
+            long time = System.nanoTime() - start;
+            this.metrics.attempt(category, Math.max(length, 1), time);
+            return length;
+        }
+    }
+
+    private static class TrackingSequence implements CharSequence
+    {
+        private final CharSequence text;
+        private int reached;
+
+        private TrackingSequence(CharSequence text)
+        {
+            this.text = text;
+        }
+
+        @Override
+        public int length()
+        {
+            return this.text.length();
+        }
+
+        @Override
+        public char charAt(int index)
+        {
+            if(index >= this.reached)
+                this.reached = index + 1;
+            return this.text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end)
+        {
+            return this.text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.text.toString();
+        }
+    }
+}
@@ -1,163 +1,599 @@
 package plt.lexer;
 
+import plt.lexer.automaton.ByteSafety;
+import plt.provider.Provider;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
 
 public class RegexLexer<T, R extends BasicToken<T>> implements Lexer<T, R>
 {
     private final TokenFactory<T, R> factory;
     private final List<Category<T>> categories;
+    private final Engine engine;
     private final Map<T, List<Transformer<T, R>>> transformers;
     private final List<Predicate<R>> filters;
+    private final Set<T> removed;
     private final Predicate<T> fail;
+    private final List<KeywordTable<T>> keywords;
+    private final SymbolTable symbols;
+    private final boolean positions;
+    private final LexerMetrics<T> metrics;
+    private final Indentation<T> indentation;
+    private final BitSet dropped = new BitSet();
+    private volatile boolean bytes;
 
     public RegexLexer(TokenFactory<T, R> factory, List<Category<T>> categories, Map<T, List<Transformer<T, R>>> transformers, List<Predicate<R>> filters, Predicate<T> fail)
+    {
+        this(factory, categories, new RegexEngine(categories.stream().map(Category::pattern).toList()), transformers, filters, fail);
+    }
+
+    public RegexLexer(TokenFactory<T, R> factory, List<Category<T>> categories, Engine engine, Map<T, List<Transformer<T, R>>> transformers, List<Predicate<R>> filters, Predicate<T> fail)
+    {
+        this(factory, categories, engine, transformers, filters, Set.of(), Set.of(), fail, Map.of(), null, true, null, null);
+    }
+
+    public RegexLexer(TokenFactory<T, R> factory, List<Category<T>> categories, Engine engine, Map<T, List<Transformer<T, R>>> transformers, List<Predicate<R>> filters, Set<T> removed, Set<T> skipped, Predicate<T> fail, Map<T, KeywordTable<T>> keywords, SymbolTable symbols, boolean positions, LexerMetrics<T> metrics, Indentation<T> indentation)
     {
         this.factory = factory;
         this.categories = categories;
+        this.engine = engine;
         this.transformers = transformers;
         this.filters = filters;
+        this.removed = removed;
         this.fail = fail;
-    }
-
-    private record Positioning(Region region, Location location)
-    {
+        this.keywords = categories.stream()
+                .map(c -> keywords.get(c.type()))
+                .toList();
+        this.symbols = symbols;
+        this.positions = positions;
+        this.metrics = metrics;
+        this.indentation = indentation;
+        for (int i = 0; i < categories.size(); i++)
+        {
+            T type = categories.get(i).type();
+            if(skipped.contains(type) || (removed.contains(type) && !transformers.containsKey(type) && !fail.test(type) && this.keywords.get(i) == null))
+                this.dropped.set(i);
+        }
     }
 
     @Override
-    public List<R> lex(String text)
+    public List<R> lex(CharSequence text)
     {
-        return filter(transform(process(text)));
+        List<R> tokens = new ArrayList<>();
+        LineIndex lines = lines(text);
+        Cursor cursor = new Cursor(text, search(text), 0, lines);
+        IndentTracker indents = indents();
+        while (cursor.advance())
+        {
+            if(cursor.dropped())
+                continue;
+            R token = finish(cursor.token());
+            if(token == null)
+                continue;
+            if(indents != null)
+                indent(indents.update(text, cursor.start(), cursor.position()), indents, text, cursor.start(), lines, tokens, null);
+            tokens.add(token);
+        }
+        if(indents != null)
+            indent(-indents.close(), indents, text, text.length(), lines, tokens, null);
+        return tokens;
     }
 
-    private List<R> filter(List<R> tokens)
+    @Override
+    public LexResult<R> recover(CharSequence text)
     {
-        List<R> filtered = new ArrayList<>();
-        for (R token : tokens)
+        List<R> tokens = new ArrayList<>();
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        LineIndex lines = lines(text);
+        Cursor cursor = new Cursor(text, search(text), 0, lines);
+        IndentTracker indents = indents();
+        T failed = null;
+        int start = 0;
+        int end = 0;
+        while (cursor.advance())
         {
-            boolean removed = this.filters.stream()
-                    .map(f -> f.test(token))
-                    .reduce(false, (a, b) -> a || b);
-            if(!removed)
-                filtered.add(token);
+            if(cursor.dropped())
+                continue;
+            R token = cursor.token();
+            if(this.fail.test(token.type()))
+            {
+                if(indents != null)
+                {
+                    int change = indents.update(text, cursor.start(), cursor.position());
+                    if(change != 0)
+                    {
+                        recover(text, lines, failed, start, end, tokens, diagnostics);
+                        failed = null;
+                    }
+                    indent(change, indents, text, cursor.start(), lines, tokens, diagnostics);
+                }
+                if(failed == null || end != cursor.start() || !failed.equals(token.type()))
+                {
+                    recover(text, lines, failed, start, end, tokens, diagnostics);
+                    failed = token.type();
+                    start = cursor.start();
+                }
+                end = cursor.position();
+                continue;
+            }
+            recover(text, lines, failed, start, end, tokens, diagnostics);
+            failed = null;
+            token = transform(token);
+            if(isRemoved(token))
+                continue;
+            if(indents != null)
+                indent(indents.update(text, cursor.start(), cursor.position()), indents, text, cursor.start(), lines, tokens, diagnostics);
+            tokens.add(token);
         }
-        return filtered;
+        recover(text, lines, failed, start, end, tokens, diagnostics);
+        if(indents != null)
+            indent(-indents.close(), indents, text, text.length(), lines, tokens, diagnostics);
+        return new LexResult<>(tokens, diagnostics);
     }
 
-    private List<R> transform(List<R> tokens)
+    @Override
+    public TokenBuffer<T, R> buffer(CharSequence text)
     {
-        List<R> transformed = new ArrayList<>();
-        for (R token : tokens)
+        TokenBuffer<T, R> buffer = new TokenBuffer<>(text, this.factory, this.symbols, this.positions);
+        Search search = search(text);
+        IndentTracker indents = indents();
+        int cursor = 0;
+        while (cursor < text.length() && search.find(cursor))
         {
-            List<Transformer<T, R>> specific = this.transformers.getOrDefault(token.type(), List.of());
-            boolean changed = false;
-            for (Transformer<T, R> transformer : specific)
+            int start = search.start();
+            cursor = search.end();
+            if(isDropped(search.category()))
+                continue;
+            T type = type(search.category(), text, start, cursor);
+            if(this.fail.test(type))
+                throw new RuntimeException("Failed on input " + text.subSequence(start, cursor));
+            boolean specific = this.transformers.containsKey(type);
+            if(!specific && this.removed.contains(type))
+            {
+                if(this.metrics != null)
+                    this.metrics.filtered();
+                continue;
+            }
+            boolean direct = !specific && this.filters.isEmpty();
+            if(direct && indents != null)
+                indent(indents.update(text, start, cursor), indents, start, buffer);
+            buffer.add(type, start, cursor);
+            if(direct)
+                continue;
+
+            int index = buffer.size() - 1;
+            R token = buffer.token(index);
+            R transformed = transform(token);
+            if(isRemoved(transformed))
+            {
+                buffer.removeLast();
+                continue;
+            }
+            if(indents != null)
             {
-                if(!changed)
+                int change = indents.update(text, start, cursor);
+                if(change != 0 || !indents.consistent())
                 {
-                    boolean test = transformer.check().test(token);
-                    if(test)
-                        token = transformer.transformer().apply(token);
-                    changed = test;
+                    buffer.removeLast();
+                    indent(change, indents, start, buffer);
+                    buffer.add(type, start, cursor);
+                    index = buffer.size() - 1;
                 }
             }
-            transformed.add(token);
+            if(transformed != token)
+                buffer.replace(index, transformed);
         }
-        return transformed;
+        if(indents != null)
+            indent(-indents.close(), indents, text.length(), buffer);
+        return buffer;
     }
 
-    private List<R> process(String text)
+    @Override
+    public Provider<R> lex(Reader reader)
     {
-        List<R> tokens = new ArrayList<>();
-        Positioning positioning = getStartPositioning();
-        List<Matcher> matchers = getMatchers(text);
-        boolean running = true;
-        while (running && positioning.location.global < text.length())
-        {
-            int best = getBestMatcherIndex(positioning.location.global, matchers);
-            running = best != -1;
-            if(running)
-            {
-                Matcher matcher = matchers.get(best);
-                String t = matcher.group();
-                T type = this.categories.get(best).type();
-                int start = matcher.start();
-                int end = matcher.end();
-                Positioning location = getLocation(text, start, end, positioning);
-                R e = this.factory.create(t, type, location.region);
-                if(this.fail.test(e.type()))
-                    throw new RuntimeException("Failed on input " + e.text());
-                tokens.add(e);
-                positioning = location;
-            }
+        return new StreamProvider(reader);
+    }
+
+    private void recover(CharSequence text, LineIndex lines, T failed, int start, int end, List<R> tokens, List<Diagnostic> diagnostics)
+    {
+        if(failed == null)
+            return;
+        Region region = lines == null ? null : lines.region(start, end);
+        R token = create(text, start, end, failed, region);
+        tokens.add(token);
+        diagnostics.add(new Diagnostic("Failed on input " + token.text(), start, end, region));
+    }
+
+    private IndentTracker indents()
+    {
+        return this.indentation == null ? null : new IndentTracker(this.indentation.tab());
+    }
+
+    private void indent(int change, IndentTracker indents, CharSequence text, int offset, LineIndex lines, List<R> tokens, List<Diagnostic> diagnostics)
+    {
+        if(!indents.consistent())
+        {
+            if(diagnostics == null)
+                throw new RuntimeException(inconsistent(offset));
+            diagnostics.add(new Diagnostic(inconsistent(offset), offset, offset, lines == null ? null : lines.region(offset, offset)));
+        }
+        for (int i = 0; i < Math.abs(change); i++)
+        {
+            Region region = lines == null ? null : lines.region(offset, offset);
+            R token = finish(create(text, offset, offset, change > 0 ? this.indentation.indent() : this.indentation.dedent(), region));
+            if(token != null)
+                tokens.add(token);
         }
-        return tokens;
     }
 
-    private int getBestMatcherIndex(int start, List<Matcher> matchers)
+    private void indent(int change, IndentTracker indents, int offset, TokenBuffer<T, R> buffer)
     {
-        int bestStart = Integer.MAX_VALUE;
-        int index = -1;
-        for(int i = 0; i < matchers.size(); i++)
+        if(!indents.consistent())
+            throw new RuntimeException(inconsistent(offset));
+        for (int i = 0; i < Math.abs(change); i++)
         {
-            Matcher matcher = matchers.get(i);
-            if(matcher.find(start) && matcher.start() < bestStart)
-            {
-                bestStart = matcher.start();
-                index = i;
-            }
+            buffer.add(change > 0 ? this.indentation.indent() : this.indentation.dedent(), offset, offset);
         }
-        return index;
     }
 
-    private record Location(int global, Position local)
+    private static String inconsistent(int offset)
+    {
+        return "Dedent at offset " + offset + " does not match any outer indentation level!";
+    }
+
+    private boolean isDropped(int category)
     {
+        if(!this.dropped.get(category))
+            return false;
+        if(this.metrics != null)
+            this.metrics.filtered();
+        return true;
     }
 
-    private Positioning getLocation(String text, int start, int end, Positioning positioning)
+    private boolean isRemoved(R token)
     {
-        Location s = getLocation(text, positioning.location.global, start, positioning.location.local);
-        Location e = getLocation(text, s.global, end, s.local);
-        Region region = new Region(null, s.local, e.local);
-        return new Positioning(region, e);
+        if(!this.removed.contains(token.type()) && !isFiltered(token))
+            return false;
+        if(this.metrics != null)
+            this.metrics.filtered();
+        return true;
     }
 
-    private Location getLocation(String text, int current, int pos, Position local)
+    private boolean isFiltered(R token)
     {
-        int line = local.line();
-        int offset = local.offset();
-        while (current < pos)
+        for (Predicate<R> filter : this.filters)
         {
-            if (text.charAt(current) == '\n')
+            if(filter.test(token))
+                return true;
+        }
+        return false;
+    }
+
+    private R transform(R token)
+    {
+        List<Transformer<T, R>> specific = this.transformers.get(token.type());
+        if(specific == null)
+            return token;
+        for (Transformer<T, R> transformer : specific)
+        {
+            if(transformer.check().test(token))
             {
-                offset = 0;
-                line++;
+                if(this.metrics != null)
+                    this.metrics.transformed();
+                return transformer.transformer().apply(token);
             }
-            offset++;
-            current++;
         }
-        return new Location(current, new Position(line, offset));
+        return token;
     }
 
-    private Positioning getStartPositioning()
+    public SymbolTable symbols()
     {
-        return new Positioning(
-                null,
-                new Location(
-                        0,
-                        new Position(1, 0)
-                )
-        );
+        return this.symbols;
     }
 
-    private List<Matcher> getMatchers(String text)
+    boolean positions()
     {
-        return this.categories.stream()
-                .map(Category::pattern)
-                .map(p -> p.matcher(text))
-                .toList();
+        return this.positions;
+    }
+
+    LineIndex lines(CharSequence text)
+    {
+        return this.positions ? LineIndex.of(text) : null;
+    }
+
+    Search search(CharSequence text)
+    {
+        if(text instanceof ByteText && !this.bytes)
+            checkBytes();
+        return this.engine.search(text);
+    }
+
+    private void checkBytes()
+    {
+        for (Category<T> category : this.categories)
+        {
+            if(category.isScanner() ? !category.scanner().isByteSafe() : !ByteSafety.isSafe(category.pattern()))
+                throw new RuntimeException("Category " + category.type() + " can not be matched over UTF-8 bytes!");
+        }
+        this.bytes = true;
+    }
+
+    List<R> finish(List<R> tokens)
+    {
+        List<R> finished = new ArrayList<>();
+        for (R token : tokens)
+        {
+            if(token != null && (token = finish(token)) != null)
+                finished.add(token);
+        }
+        return finished;
+    }
+
+    R finish(R token)
+    {
+        token = transform(check(token));
+        return isRemoved(token) ? null : token;
+    }
+
+    R move(R token, Region region)
+    {
+        return this.factory.create(token.text(), token.type(), region, token.symbol());
+    }
+
+    private R create(CharSequence text, int start, int end, int category, Region region)
+    {
+        return create(text, start, end, type(category, text, start, end), region);
+    }
+
+    private R create(CharSequence text, int start, int end, T type, Region region)
+    {
+        if(this.symbols == null)
+            return this.factory.create(text.subSequence(start, end), type, region, -1);
+        int symbol = this.symbols.id(text, start, end);
+        return this.factory.create(this.symbols.symbol(symbol), type, region, symbol);
+    }
+
+    private T type(int category, CharSequence text, int start, int end)
+    {
+        KeywordTable<T> keywords = this.keywords.get(category);
+        if(keywords != null)
+        {
+            T keyword = keywords.get(text, start, end);
+            if(keyword != null)
+                return keyword;
+        }
+        return this.categories.get(category).type();
+    }
+
+    private R check(R token)
+    {
+        if(this.fail.test(token.type()))
+            throw new RuntimeException("Failed on input " + token.text());
+        return token;
+    }
+
+    final class Cursor
+    {
+        private final CharSequence text;
+        private final Search search;
+        private final LineIndex lines;
+        private int position;
+        private R token;
+        private int start;
+        private int category;
+
+        Cursor(CharSequence text, Search search, int from, LineIndex lines)
+        {
+            this.text = text;
+            this.search = search;
+            this.position = from;
+            this.lines = lines;
+        }
+
+        boolean advance()
+        {
+            if(this.position >= this.text.length() || !this.search.find(this.position))
+                return false;
+            this.start = this.search.start();
+            this.position = this.search.end();
+            this.category = this.search.category();
+            this.token = null;
+            return true;
+        }
+
+        boolean dropped()
+        {
+            return isDropped(this.category);
+        }
+
+        R token()
+        {
+            if(this.token == null)
+            {
+                Region region = this.lines == null ? null : this.lines.region(this.start, this.position);
+                this.token = create(this.text, this.start, this.position, this.category, region);
+            }
+            return this.token;
+        }
+
+        int start()
+        {
+            return this.start;
+        }
+
+        int position()
+        {
+            return this.position;
+        }
+
+        int reach()
+        {
+            return this.search.reach();
+        }
+    }
+
+    private class StreamProvider implements Provider<R>
+    {
+        private static final int CHUNK = 1 << 16;
+
+        private final Reader reader;
+        private final char[] chunk = new char[CHUNK];
+        private final StringBuilder buffer = new StringBuilder();
+        private final Deque<R> pending = new ArrayDeque<>();
+        private final IndentTracker indents = indents();
+        private Search search = engine.search(this.buffer);
+        private int cursor;
+        private int consumed;
+        private int start;
+        private Position origin;
+        private int walked;
+        private int line = 1;
+        private int offset;
+        private boolean exhausted;
+        private boolean done;
+        private R next;
+
+        private StreamProvider(Reader reader)
+        {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean has()
+        {
+            while (this.next == null && !this.done)
+            {
+                if(!this.pending.isEmpty())
+                {
+                    this.next = this.pending.poll();
+                    continue;
+                }
+                R token = scan();
+                if(token == null)
+                {
+                    this.done = this.indents == null || !emit(-this.indents.close(), this.buffer.length(), positions ? walk(this.buffer.length()) : null);
+                    continue;
+                }
+                token = finish(token);
+                if(token != null && this.indents != null)
+                    emit(this.indents.update(this.buffer, this.start, this.cursor), this.start, this.origin);
+                if(token != null && this.pending.isEmpty())
+                    this.next = token;
+                else if(token != null)
+                    this.pending.add(token);
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public R next()
+        {
+            R token = peek();
+            this.next = null;
+            return token;
+        }
+
+        @Override
+        public R peek()
+        {
+            if(!has())
+                throw new NoSuchElementException("No more tokens available!");
+            return this.next;
+        }
+
+        private R scan()
+        {
+            while (true)
+            {
+                boolean found = this.cursor < this.buffer.length() && this.search.find(this.cursor);
+                if(found && (this.exhausted || !this.search.hitEnd()))
+                {
+                    int start = this.search.start();
+                    this.cursor = this.search.end();
+                    if(isDropped(this.search.category()))
+                        continue;
+                    Region region = positions ? new Region(null, walk(start), walk(this.cursor)) : null;
+                    this.start = start;
+                    this.origin = region == null ? null : region.start();
+                    return create(this.buffer, start, this.cursor, this.search.category(), region);
+                }
+                if(this.exhausted)
+                    return null;
+                fill();
+            }
+        }
+
+        private boolean emit(int change, int offset, Position position)
+        {
+            if(!this.indents.consistent())
+                throw new RuntimeException(inconsistent(this.consumed + offset));
+            for (int i = 0; i < Math.abs(change); i++)
+            {
+                Region region = position == null ? null : new Region(null, position, position);
+                R token = finish(create(this.buffer, offset, offset, change > 0 ? indentation.indent() : indentation.dedent(), region));
+                if(token != null)
+                    this.pending.add(token);
+            }
+            return change != 0;
+        }
+
+        private Position walk(int to)
+        {
+            while (this.walked < to)
+            {
+                if(this.buffer.charAt(this.walked) == '\n')
+                {
+                    this.offset = 0;
+                    this.line++;
+                }
+                this.offset++;
+                this.walked++;
+            }
+            return new Position(this.line, this.offset);
+        }
+
+        private void fill()
+        {
+            if(positions)
+                walk(this.cursor);
+            if(this.indents != null)
+            {
+                this.indents.walk(this.buffer, this.cursor);
+                this.indents.shift(this.cursor);
+            }
+            this.consumed += this.cursor;
+            this.buffer.delete(0, this.cursor);
+            this.walked = 0;
+            this.cursor = 0;
+            try
+            {
+                int read = this.reader.read(this.chunk);
+                while (read == 0 || (read > 0 && Character.isHighSurrogate(this.chunk[read - 1])))
+                {
+                    this.buffer.append(this.chunk, 0, read);
+                    read = this.reader.read(this.chunk);
+                }
+                if(read == -1)
+                    this.exhausted = true;
+                else
+                    this.buffer.append(this.chunk, 0, read);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            this.search = engine.search(this.buffer);
+        }
     }
 }
\ No newline at end of file
@@ -1,6 +1,15 @@
 package plt.lexer;
 
+import plt.lexer.automaton.Automaton;
+import plt.lexer.automaton.AutomatonCompiler;
+import plt.lexer.automaton.AutomatonEngine;
+import plt.lexer.automaton.PatternAnalysis;
+import plt.lexer.automaton.Prefilter;
+
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
@@ -18,11 +27,42 @@ public class RegexLexerFactoryBuilder<T, R extends BasicToken<T>>
                 .factory(factory);
     }
 
+    public static <T, R extends BasicToken<T>> RegexLexerFactoryBuilder<T, R> create(SymbolTokenFactory<T, R> factory)
+    {
+        return new RegexLexerFactoryBuilder<T, R>()
+                .factory(factory);
+    }
+
+    public static <T, R extends BasicToken<T>> RegexLexerFactoryBuilder<T, R> createLazy(LazyTokenFactory<T, R> factory)
+    {
+        return new RegexLexerFactoryBuilder<T, R>()
+                .factory(factory);
+    }
+
     private TokenFactory<T, R> factory;
     private final List<Category<T>> categories = new ArrayList<>();
     private final Map<T, List<Transformer<T, R>>> transformer = new HashMap<>();
     private final List<Predicate<R>> filters = new ArrayList<>();
+    private final Set<T> removed = new HashSet<>();
+    private final Set<T> skipped = new HashSet<>();
     private Predicate<T> fail = t -> false;
+    private T failure;
+    private final Map<T, Map<String, T>> keywords = new HashMap<>();
+    private boolean lookahead;
+    private boolean eager;
+    private boolean positions = true;
+    private SymbolTable symbols;
+    private ForkJoinPool pool;
+    private int chunk;
+    private Path cache;
+    private long limit;
+    private String version;
+    private LexerMetrics<T> metrics;
+    private Consumer<CategoryIssue<T>> reporter;
+    private boolean strict;
+    private boolean possessive;
+    private LexerTables tables;
+    private Indentation<T> indentation;
 
     public RegexLexerFactoryBuilder<T, R> factory(TokenFactory<T, R> factory)
     {
@@ -30,6 +70,12 @@ public class RegexLexerFactoryBuilder<T, R extends BasicToken<T>>
         return this;
     }
 
+    public RegexLexerFactoryBuilder<T, R> factory(SymbolTokenFactory<T, R> factory)
+    {
+        this.factory = factory;
+        return this;
+    }
+
     public RegexLexerFactoryBuilder<T, R> category(T type, Pattern pattern)
     {
         return category(new Category<>(type, pattern));
@@ -40,6 +86,16 @@ public class RegexLexerFactoryBuilder<T, R extends BasicToken<T>>
         return category(new Category<>(type, pattern));
     }
 
+    public RegexLexerFactoryBuilder<T, R> category(T type, Scanner scanner)
+    {
+        return category(new Category<>(type, scanner));
+    }
+
+    public RegexLexerFactoryBuilder<T, R> literals(T type, String ... literals)
+    {
+        return category(type, Scanners.literals(literals));
+    }
+
     public RegexLexerFactoryBuilder<T, R> category(Category<T> category)
     {
         this.categories.add(category);
@@ -57,22 +113,396 @@ public class RegexLexerFactoryBuilder<T, R extends BasicToken<T>>
         return this;
     }
 
+    public RegexLexerFactoryBuilder<T, R> keywords(T type, T replacement, String ... texts)
+    {
+        Map<String, T> table = this.keywords.computeIfAbsent(type, k -> new HashMap<>());
+        for (String text : texts)
+        {
+            T previous = table.putIfAbsent(text, replacement);
+            if(previous != null && !previous.equals(replacement))
+                throw new RuntimeException("Keyword " + text + " is already mapped to " + previous + "!");
+        }
+        return this;
+    }
+
     public RegexLexerFactoryBuilder<T, R> filter(Predicate<R> check)
     {
         this.filters.add(check);
         return this;
     }
 
+    public RegexLexerFactoryBuilder<T, R> filter(T type)
+    {
+        this.removed.add(type);
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> skip(T type)
+    {
+        this.skipped.add(type);
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> skip(T type, Pattern pattern)
+    {
+        return category(type, pattern).skip(type);
+    }
+
+    public RegexLexerFactoryBuilder<T, R> skip(T type, String pattern)
+    {
+        return category(type, pattern).skip(type);
+    }
+
     public RegexLexerFactoryBuilder<T, R> fail(T type)
     {
         this.fail = t -> Objects.equals(t, type);
+        this.failure = type;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> lookahead()
+    {
+        this.lookahead = true;
+        this.eager = false;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> eager()
+    {
+        this.eager = true;
+        this.lookahead = false;
         return this;
     }
 
+    public RegexLexerFactoryBuilder<T, R> positions(boolean positions)
+    {
+        this.positions = positions;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> symbols()
+    {
+        return symbols(new SymbolTable());
+    }
+
+    public RegexLexerFactoryBuilder<T, R> symbols(SymbolTable symbols)
+    {
+        this.symbols = symbols;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> parallel()
+    {
+        return parallel(ForkJoinPool.commonPool(), 1 << 20);
+    }
+
+    public RegexLexerFactoryBuilder<T, R> parallel(ForkJoinPool pool, int chunk)
+    {
+        this.pool = pool;
+        this.chunk = chunk;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> cache(Path directory, long limit, String version)
+    {
+        this.cache = directory;
+        this.limit = limit;
+        this.version = version;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> indentation(T indent, T dedent)
+    {
+        return indentation(new Indentation<>(indent, dedent));
+    }
+
+    public RegexLexerFactoryBuilder<T, R> indentation(Indentation<T> indentation)
+    {
+        this.indentation = indentation;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> metrics(LexerMetrics<T> metrics)
+    {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> analyze(Consumer<CategoryIssue<T>> reporter)
+    {
+        this.reporter = reporter;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> strict()
+    {
+        this.strict = true;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> possessive()
+    {
+        this.possessive = true;
+        return this;
+    }
+
+    public RegexLexerFactoryBuilder<T, R> tables(LexerTables tables)
+    {
+        this.tables = tables;
+        return this;
+    }
+
+    public LexerTables export()
+    {
+        List<Pattern> patterns = patterns();
+        List<Pattern> matched = analyze(patterns, true);
+        return new LexerTables(fingerprint("tables", types()), matched, prefilter(), automaton(patterns));
+    }
+
     public LexerFactory<T, R> build()
+    {
+        return build(engine());
+    }
+
+    public LexerFactory<T, R> buildAutomaton()
+    {
+        List<Pattern> patterns = patterns();
+        LexerTables tables = loaded();
+        Automaton automaton = tables == null ? null : tables.automaton();
+        if(automaton == null)
+        {
+            if(patterns.contains(null))
+                throw new RuntimeException("Scanner categories can not be compiled into an automaton!");
+            analyze(patterns, false);
+            automaton = AutomatonCompiler.compile(patterns);
+        }
+        bindMetrics();
+        Engine engine = new AutomatonEngine(automaton);
+        return build(this.metrics == null ? engine : new MeasuredEngine(engine, this.metrics));
+    }
+
+    public IncrementalLexerFactory<T, R> buildIncremental()
+    {
+        validate();
+        if(this.indentation != null)
+            throw new RuntimeException("Indentation tracking is not supported by incremental lexers!");
+        Engine engine = engine();
+        Map<T, KeywordTable<T>> keywords = keywords();
+        return () -> new IncrementalLexer<>(lexer(engine, keywords));
+    }
+
+    private LexerFactory<T, R> build(Engine engine)
+    {
+        validate();
+        if(this.indentation != null && this.pool != null)
+            throw new RuntimeException("Indentation tracking is not supported by parallel lexers!");
+        Map<T, KeywordTable<T>> keywords = keywords();
+        LexerFactory<T, R> factory = this.pool == null
+                ? () -> lexer(engine, keywords)
+                : () -> new ParallelLexer<>(lexer(engine, keywords), this.pool, this.chunk);
+        if(this.cache == null || this.categories.stream().anyMatch(c -> c.isScanner() && c.scanner().description() == null))
+            return factory;
+        List<T> types = types();
+        TokenCache<T, R> cache = new TokenCache<>(this.cache, this.limit, fingerprint(this.version, types), types, this.factory, this.symbols);
+        if(!cache.enabled())
+            return factory;
+        return () -> new CachedLexer<>(factory.create(), cache);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> types()
+    {
+        Set<T> types = new LinkedHashSet<>();
+        if(!this.categories.isEmpty() && this.categories.get(0).type() instanceof Enum<?> type)
+        {
+            for (Object constant : type.getDeclaringClass().getEnumConstants())
+            {
+                types.add((T) constant);
+            }
+        }
+        this.categories.forEach(c -> types.add(c.type()));
+        if(this.indentation != null)
+        {
+            types.add(this.indentation.indent());
+            types.add(this.indentation.dedent());
+        }
+        this.keywords.values().stream()
+                .flatMap(k -> k.values().stream())
+                .sorted(Comparator.comparing(String::valueOf))
+                .forEach(types::add);
+        return new ArrayList<>(types);
+    }
+
+    private String fingerprint(String version, List<T> types)
+    {
+        List<String> unordered = new ArrayList<>();
+        this.keywords.forEach((type, table) -> table.forEach((text, replacement) -> unordered.add("keyword " + type + " " + replacement + " " + text)));
+        this.transformer.forEach((type, list) -> unordered.add("transformers " + type + " " + list.size()));
+        this.removed.forEach(type -> unordered.add("removed " + type));
+        this.skipped.forEach(type -> unordered.add("skipped " + type));
+        Collections.sort(unordered);
+
+        StringBuilder fingerprint = new StringBuilder(version);
+        for (Category<T> category : this.categories)
+        {
+            fingerprint.append("\0category ").append(category.type());
+            if(category.isScanner())
+                fingerprint.append(" scanner ").append(category.scanner().description() == null ? category.scanner() : category.scanner().description());
+            else
+                fingerprint.append(' ').append(category.pattern().flags())
+                        .append(' ').append(category.pattern().pattern());
+        }
+        unordered.forEach(entry -> fingerprint.append('\0').append(entry));
+        fingerprint.append("\0filters ").append(this.filters.size())
+                .append("\0fail ").append(this.failure)
+                .append("\0positions ").append(this.positions)
+                .append("\0indentation ").append(this.indentation)
+                .append("\0types ").append(types)
+                .append("\0possessive ").append(this.possessive)
+                .append("\0strict ").append(this.strict);
+        return fingerprint.toString();
+    }
+
+    private Engine engine()
+    {
+        List<Pattern> patterns = patterns();
+        LexerTables tables = loaded();
+        List<Pattern> matched = tables == null ? analyze(patterns, true) : tables.patterns(patterns);
+        Prefilter prefilter = null;
+        if(!this.lookahead && !this.eager)
+            prefilter = tables == null || tables.prefilter() == null ? prefilter() : tables.prefilter();
+        bindMetrics();
+        return new RegexEngine(matched, scanners(), this.lookahead, prefilter, this.metrics);
+    }
+
+    private LexerTables loaded()
+    {
+        if(this.tables == null || !this.tables.fingerprint().equals(fingerprint("tables", types())))
+            return null;
+        return this.tables;
+    }
+
+    private Prefilter prefilter()
+    {
+        List<BitSet> starts = new ArrayList<>();
+        for (Category<T> category : this.categories)
+        {
+            if(!category.isScanner())
+            {
+                starts.add(Prefilter.start(category.pattern()));
+                continue;
+            }
+            BitSet start = new BitSet(Character.MAX_VALUE + 1);
+            for (int c = 0; c <= Character.MAX_VALUE; c++)
+            {
+                if(category.scanner().isStart((char) c))
+                    start.set(c);
+            }
+            starts.add(start);
+        }
+        return Prefilter.create(starts);
+    }
+
+    private static Automaton automaton(List<Pattern> patterns)
+    {
+        if(patterns.contains(null))
+            return null;
+        try
+        {
+            return AutomatonCompiler.compile(patterns);
+        }
+        catch (RuntimeException e)
+        {
+            return null;
+        }
+    }
+
+    private List<Pattern> analyze(List<Pattern> patterns, boolean backtracking)
+    {
+        if(this.reporter == null && !this.strict && !this.possessive)
+            return patterns;
+        List<CategoryIssue<T>> issues = new ArrayList<>();
+        List<Pattern> matched = new ArrayList<>(patterns);
+        for (int i = 0; i < patterns.size(); i++)
+        {
+            T type = this.categories.get(i).type();
+            Pattern pattern = patterns.get(i);
+            if(pattern == null)
+                continue;
+            if(PatternAnalysis.isNullable(pattern))
+                issues.add(new CategoryIssue<>(CategoryIssue.Kind.EMPTY, i, type, "Category " + type + " can match the empty string and would stall the lexer!", null));
+            for (int j = 0; j < i; j++)
+            {
+                if(patterns.get(j) != null && PatternAnalysis.shadows(patterns.get(j), pattern))
+                {
+                    issues.add(new CategoryIssue<>(CategoryIssue.Kind.SHADOWED, i, type, "Category " + type + " is shadowed by the earlier category " + this.categories.get(j).type() + "!", null));
+                    break;
+                }
+            }
+            if(!backtracking)
+                continue;
+            for (String hazard : PatternAnalysis.hazards(pattern))
+            {
+                issues.add(new CategoryIssue<>(CategoryIssue.Kind.BACKTRACKING, i, type, "Category " + type + " may backtrack excessively. " + hazard + "!", null));
+            }
+            Pattern rewritten = PatternAnalysis.possessive(pattern);
+            if(rewritten == pattern)
+                continue;
+            if(this.possessive)
+                matched.set(i, rewritten);
+            else
+                issues.add(new CategoryIssue<>(CategoryIssue.Kind.POSSESSIVE, i, type, "Category " + type + " can use the possessive pattern " + rewritten.pattern() + "!", rewritten));
+        }
+        if(this.reporter != null)
+            issues.forEach(this.reporter);
+        List<String> hazards = issues.stream()
+                .filter(CategoryIssue::isHazard)
+                .map(CategoryIssue::message)
+                .toList();
+        if(this.strict && !hazards.isEmpty())
+            throw new RuntimeException("Lexer categories failed the analysis:\n" + String.join("\n", hazards));
+        return matched;
+    }
+
+    private void bindMetrics()
+    {
+        if(this.metrics != null)
+            this.metrics.bind(this.categories.stream().map(Category::type).toList());
+    }
+
+    private void validate()
     {
         if(this.factory == null)
             throw new RuntimeException("Token factory is required!");
-        return () -> new RegexLexer<>(this.factory, this.categories, this.transformer, this.filters, this.fail);
+        if(this.symbols != null && !(this.factory instanceof SymbolTokenFactory<T, R>))
+            throw new RuntimeException("Token factory has to be a SymbolTokenFactory when symbols are interned!");
+        if(this.failure != null && this.skipped.contains(this.failure))
+            throw new RuntimeException("Type " + this.failure + " can not be skipped and fail at the same time!");
+    }
+
+    private RegexLexer<T, R> lexer(Engine engine, Map<T, KeywordTable<T>> keywords)
+    {
+        return new RegexLexer<>(this.factory, this.categories, engine, this.transformer, this.filters, this.removed, this.skipped, this.fail, keywords, this.symbols, this.positions, this.metrics, this.indentation);
+    }
+
+    private Map<T, KeywordTable<T>> keywords()
+    {
+        Map<T, KeywordTable<T>> keywords = new HashMap<>();
+        this.keywords.forEach((type, table) -> keywords.put(type, KeywordTable.of(table)));
+        return keywords;
+    }
+
+    private List<Scanner> scanners()
+    {
+        return this.categories.stream()
+                .map(Category::scanner)
+                .toList();
+    }
+
+    private List<Pattern> patterns()
+    {
+        return this.categories.stream()
+                .map(Category::pattern)
+                .toList();
     }
 }
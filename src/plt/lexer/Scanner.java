@@ -0,0 +1,21 @@
+package plt.lexer;
+
+public interface Scanner
+{
+    int scan(CharSequence text, int position);
+
+    default boolean isStart(char c)
+    {
+        return true;
+    }
+
+    default boolean isByteSafe()
+    {
+        return false;
+    }
+
+    default String description()
+    {
+        return null;
+    }
+}
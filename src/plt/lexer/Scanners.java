@@ -0,0 +1,278 @@
+package plt.lexer;
+
+import java.util.BitSet;
+
+public final class Scanners
+{
+    private Scanners() { }
+
+    public static Scanner run(String chars)
+    {
+        return run(chars, chars);
+    }
+
+    public static Scanner run(String first, String rest)
+    {
+        return new Run(first, rest, chars(first), chars(rest));
+    }
+
+    public static Scanner identifier()
+    {
+        return run("_a-zA-Z", "_a-zA-Z0-9");
+    }
+
+    public static Scanner digits()
+    {
+        return run("0-9");
+    }
+
+    public static Scanner whitespace()
+    {
+        return run(" \t\r\n\f");
+    }
+
+    public static Scanner line(String prefix)
+    {
+        if(prefix.isEmpty())
+            throw new RuntimeException("Line scanner needs a prefix!");
+        return new Line(prefix);
+    }
+
+    public static Scanner delimited(char delimiter, char escape)
+    {
+        return delimited(delimiter, delimiter, escape, false);
+    }
+
+    public static Scanner delimited(char open, char close, char escape, boolean multiline)
+    {
+        return new Delimited(open, close, escape, multiline);
+    }
+
+    public static Scanner literals(String ... literals)
+    {
+        return LiteralTrie.of(literals);
+    }
+
+    public static Scanner nested(String open, String close)
+    {
+        if(open.isEmpty() || close.isEmpty())
+            throw new RuntimeException("Nested scanner needs an opening and a closing delimiter!");
+        return new Nested(open, close);
+    }
+
+    static BitSet chars(String spec)
+    {
+        BitSet chars = new BitSet(Character.MAX_VALUE + 1);
+        for (int i = 0; i < spec.length(); i++)
+        {
+            char from = spec.charAt(i);
+            if(i + 2 < spec.length() && spec.charAt(i + 1) == '-')
+            {
+                char to = spec.charAt(i + 2);
+                if(to < from)
+                    throw new RuntimeException("Illegal character range " + from + "-" + to + "!");
+                chars.set(from, to + 1);
+                i += 2;
+            }
+            else
+            {
+                chars.set(from);
+            }
+        }
+        return chars;
+    }
+
+    static boolean isAscii(CharSequence text)
+    {
+        for (int i = 0; i < text.length(); i++)
+        {
+            if(text.charAt(i) >= 0x80)
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean startsWith(CharSequence text, int position, String prefix)
+    {
+        if(position + prefix.length() > text.length())
+            return false;
+        for (int i = 0; i < prefix.length(); i++)
+        {
+            if(text.charAt(position + i) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private record Run(String first, String rest, BitSet starts, BitSet chars) implements Scanner
+    {
+        @Override
+        public int scan(CharSequence text, int position)
+        {
+            if(!this.starts.get(text.charAt(position)))
+                return -1;
+            int end = position + 1;
+            int length = text.length();
+            while (end < length && this.chars.get(text.charAt(end)))
+            {
+                end++;
+            }
+            return end - position;
+        }
+
+        @Override
+        public boolean isStart(char c)
+        {
+            return this.starts.get(c);
+        }
+
+        @Override
+        public boolean isByteSafe()
+        {
+            int high = this.chars.get(0x80, 0x100).cardinality();
+            return this.starts.nextSetBit(0x80) < 0 && (high == 0 || high == 0x80);
+        }
+
+        @Override
+        public String description()
+        {
+            return toString();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "run[" + this.first + "][" + this.rest + "]";
+        }
+    }
+
+    private record Line(String prefix) implements Scanner
+    {
+        @Override
+        public int scan(CharSequence text, int position)
+        {
+            if(!startsWith(text, position, this.prefix))
+                return -1;
+            int end = position + this.prefix.length();
+            int length = text.length();
+            while (end < length && text.charAt(end) != '\n')
+            {
+                end++;
+            }
+            return end - position;
+        }
+
+        @Override
+        public boolean isStart(char c)
+        {
+            return c == this.prefix.charAt(0);
+        }
+
+        @Override
+        public boolean isByteSafe()
+        {
+            return isAscii(this.prefix);
+        }
+
+        @Override
+        public String description()
+        {
+            return toString();
+        }
+    }
+
+    private record Delimited(char open, char close, char escape, boolean multiline) implements Scanner
+    {
+        @Override
+        public int scan(CharSequence text, int position)
+        {
+            if(text.charAt(position) != this.open)
+                return -1;
+            int length = text.length();
+            int end = position + 1;
+            while (end < length)
+            {
+                char c = text.charAt(end++);
+                if(c == this.close)
+                    return end - position;
+                if(c == '\n' && !this.multiline)
+                    return -1;
+                if(c == this.escape)
+                {
+                    if(end == length || (text.charAt(end) == '\n' && !this.multiline))
+                        return -1;
+                    end++;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean isStart(char c)
+        {
+            return c == this.open;
+        }
+
+        @Override
+        public boolean isByteSafe()
+        {
+            return this.open < 0x80 && this.close < 0x80 && this.escape < 0x80;
+        }
+
+        @Override
+        public String description()
+        {
+            return toString();
+        }
+    }
+
+    private record Nested(String open, String close) implements Scanner
+    {
+        @Override
+        public int scan(CharSequence text, int position)
+        {
+            if(!startsWith(text, position, this.open))
+                return -1;
+            int length = text.length();
+            int depth = 1;
+            int end = position + this.open.length();
+            while (end < length)
+            {
+                if(startsWith(text, end, this.close))
+                {
+                    end += this.close.length();
+                    if(--depth == 0)
+                        return end - position;
+                }
+                else if(startsWith(text, end, this.open))
+                {
+                    end += this.open.length();
+                    depth++;
+                }
+                else
+                {
+                    end++;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean isStart(char c)
+        {
+            return c == this.open.charAt(0);
+        }
+
+        @Override
+        public boolean isByteSafe()
+        {
+            return isAscii(this.open) && isAscii(this.close);
+        }
+
+        @Override
+        public String description()
+        {
+            return toString();
+        }
+    }
+}
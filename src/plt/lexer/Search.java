@@ -0,0 +1,11 @@
+package plt.lexer;
+
+public interface Search
+{
+    boolean find(int from);
+    int start();
+    int end();
+    int category();
+    boolean hitEnd();
+    int reach();
+}
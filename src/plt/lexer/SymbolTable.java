@@ -0,0 +1,158 @@
+package plt.lexer;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class SymbolTable
+{
+    private static final int STRIPES = 16;
+    private static final int PAGE = 1024;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile AtomicReferenceArray<String>[] pages = pages(0);
+
+    public SymbolTable()
+    {
+        for (int i = 0; i < STRIPES; i++)
+        {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public int id(CharSequence text)
+    {
+        return id(text, 0, text.length());
+    }
+
+    public int id(CharSequence text, int start, int end)
+    {
+        if(text instanceof ByteText bytes)
+            return id(bytes.subSequence(start, end).toString());
+        int hash = KeywordTable.hash(text, start, end);
+        return stripe(hash).id(hash, text, start, end);
+    }
+
+    public int find(CharSequence text)
+    {
+        if(text instanceof ByteText)
+            text = text.toString();
+        int hash = KeywordTable.hash(text, 0, text.length());
+        return stripe(hash).find(hash, text);
+    }
+
+    public String symbol(int id)
+    {
+        AtomicReferenceArray<String>[] pages = this.pages;
+        String symbol = id < 0 || id / PAGE >= pages.length || pages[id / PAGE] == null ? null : pages[id / PAGE].get(id % PAGE);
+        if(symbol == null)
+            throw new IndexOutOfBoundsException("Symbol " + id + " out of bounds for " + size() + " symbols!");
+        return symbol;
+    }
+
+    public int size()
+    {
+        return this.size.get();
+    }
+
+    private Stripe stripe(int hash)
+    {
+        return this.stripes[(hash * 0x9E3779B9) >>> 28];
+    }
+
+    private int register(String symbol)
+    {
+        int id = this.size.getAndIncrement();
+        AtomicReferenceArray<String>[] pages = this.pages;
+        if(id / PAGE >= pages.length || pages[id / PAGE] == null)
+            pages = page(id / PAGE);
+        pages[id / PAGE].set(id % PAGE, symbol);
+        return id;
+    }
+
+    private synchronized AtomicReferenceArray<String>[] page(int page)
+    {
+        AtomicReferenceArray<String>[] pages = this.pages;
+        if(page < pages.length && pages[page] != null)
+            return pages;
+        pages = Arrays.copyOf(pages, page < pages.length ? pages.length : Math.max(pages.length * 2, page + 1));
+        pages[page] = new AtomicReferenceArray<>(PAGE);
+        this.pages = pages;
+        return pages;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static AtomicReferenceArray<String>[] pages(int length)
+    {
+        return new AtomicReferenceArray[length];
+    }
+
+    private final class Stripe
+    {
+        private String[] symbols = new String[16];
+        private int[] hashes = new int[16];
+        private int[] ids = new int[16];
+        private int size;
+
+        synchronized int id(int hash, CharSequence text, int start, int end)
+        {
+            int slot = slot(hash, text, start, end);
+            if(this.symbols[slot] != null)
+                return this.ids[slot];
+
+            String symbol = text.subSequence(start, end).toString();
+            int id = register(symbol);
+            this.symbols[slot] = symbol;
+            this.hashes[slot] = hash;
+            this.ids[slot] = id;
+            if(++this.size * 2 > this.symbols.length)
+                rehash();
+            return id;
+        }
+
+        synchronized int find(int hash, CharSequence text)
+        {
+            int slot = slot(hash, text, 0, text.length());
+            return this.symbols[slot] == null ? -1 : this.ids[slot];
+        }
+
+        private int slot(int hash, CharSequence text, int start, int end)
+        {
+            int mask = this.symbols.length - 1;
+            int slot = hash & mask;
+            String symbol;
+            while ((symbol = this.symbols[slot]) != null)
+            {
+                if(this.hashes[slot] == hash && KeywordTable.matches(symbol, text, start, end - start))
+                    return slot;
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash()
+        {
+            String[] symbols = this.symbols;
+            int[] hashes = this.hashes;
+            int[] ids = this.ids;
+            this.symbols = new String[symbols.length * 2];
+            this.hashes = new int[symbols.length * 2];
+            this.ids = new int[symbols.length * 2];
+            int mask = this.symbols.length - 1;
+            for (int i = 0; i < symbols.length; i++)
+            {
+                if(symbols[i] == null)
+                    continue;
+                int slot = hashes[i] & mask;
+                while (this.symbols[slot] != null)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                this.symbols[slot] = symbols[i];
+                this.hashes[slot] = hashes[i];
+                this.ids[slot] = ids[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package plt.lexer;
+
+public interface SymbolTokenFactory<T, V extends BasicToken<T>> extends TokenFactory<T, V>
+{
+    @Override
+    V create(String text, T type, Region region, int symbol);
+
+    @Override
+    default V create(String text, T type, Region region)
+    {
+        return create(text, type, region, -1);
+    }
+}
@@ -0,0 +1,206 @@
+package plt.lexer;
+
+import plt.provider.Provider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+public class TokenBuffer<T, R extends BasicToken<T>>
+{
+    private final CharSequence source;
+    private final TokenFactory<T, R> factory;
+    private final List<T> types = new ArrayList<>();
+    private final Map<T, Integer> ordinals = new HashMap<>();
+    private int[] kinds = new int[256];
+    private int[] starts = new int[256];
+    private int[] ends = new int[256];
+    private int[] ids;
+    private Object[] overrides;
+    private final SymbolTable symbols;
+    private final boolean positions;
+    private LineIndex lines;
+    private int size;
+
+    TokenBuffer(CharSequence source, TokenFactory<T, R> factory, SymbolTable symbols, boolean positions)
+    {
+        this.source = source;
+        this.factory = factory;
+        this.symbols = symbols;
+        this.positions = positions;
+        if(symbols != null)
+            this.ids = new int[256];
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    public T type(int index)
+    {
+        return this.types.get(this.kinds[check(index)]);
+    }
+
+    public int start(int index)
+    {
+        return this.starts[check(index)];
+    }
+
+    public int end(int index)
+    {
+        return this.ends[check(index)];
+    }
+
+    public int line(int index)
+    {
+        return lines().line(this.starts[check(index)]);
+    }
+
+    public String text(int index)
+    {
+        R override = override(check(index));
+        if(override != null)
+            return override.text();
+        if(this.ids != null)
+            return this.symbols.symbol(this.ids[index]);
+        return this.source.subSequence(this.starts[index], this.ends[index]).toString();
+    }
+
+    public Region region(int index)
+    {
+        R override = override(check(index));
+        if(override != null)
+            return override.region();
+        if(!this.positions)
+            return null;
+        return lines().region(this.starts[index], this.ends[index]);
+    }
+
+    public int symbol(int index)
+    {
+        R override = override(check(index));
+        if(override != null)
+            return override.symbol();
+        return this.ids == null ? -1 : this.ids[index];
+    }
+
+    public R token(int index)
+    {
+        R override = override(check(index));
+        if(override != null)
+            return override;
+        return this.factory.create(text(index), type(index), region(index), symbol(index));
+    }
+
+    public Provider<R> provider()
+    {
+        return new BufferProvider();
+    }
+
+    void add(T type, int start, int end)
+    {
+        if(this.size == this.kinds.length)
+        {
+            int capacity = this.size * 2;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            if(this.ids != null)
+                this.ids = Arrays.copyOf(this.ids, capacity);
+            if(this.overrides != null)
+                this.overrides = Arrays.copyOf(this.overrides, capacity);
+        }
+        this.kinds[this.size] = ordinal(type);
+        this.starts[this.size] = start;
+        this.ends[this.size] = end;
+        if(this.ids != null)
+            this.ids[this.size] = this.symbols.id(this.source, start, end);
+        this.size++;
+    }
+
+    void replace(int index, R token)
+    {
+        boolean same = token.isText(text(index)) && Objects.equals(token.region(), region(index)) && token.symbol() == symbol(index);
+        this.kinds[index] = ordinal(token.type());
+        if(same && override(index) == null)
+            return;
+        if(this.overrides == null)
+            this.overrides = new Object[this.kinds.length];
+        this.overrides[index] = token;
+    }
+
+    void removeLast()
+    {
+        this.size--;
+        if(this.overrides != null)
+            this.overrides[this.size] = null;
+    }
+
+    private int ordinal(T type)
+    {
+        Integer ordinal = this.ordinals.get(type);
+        if(ordinal == null)
+        {
+            ordinal = this.types.size();
+            this.types.add(type);
+            this.ordinals.put(type, ordinal);
+        }
+        return ordinal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private R override(int index)
+    {
+        return this.overrides == null ? null : (R) this.overrides[index];
+    }
+
+    private LineIndex lines()
+    {
+        if(this.lines == null)
+            this.lines = LineIndex.of(this.source);
+        return this.lines;
+    }
+
+    private int check(int index)
+    {
+        if(index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for " + this.size + " tokens!");
+        return index;
+    }
+
+    private class BufferProvider implements Provider<R>
+    {
+        private int index;
+        private R current;
+
+        @Override
+        public boolean has()
+        {
+            return this.index < size;
+        }
+
+        @Override
+        public R next()
+        {
+            R token = peek();
+            this.current = null;
+            this.index++;
+            return token;
+        }
+
+        @Override
+        public R peek()
+        {
+            if(!has())
+                throw new NoSuchElementException("No more tokens available!");
+            if(this.current == null)
+                this.current = token(this.index);
+            return this.current;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package plt.lexer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class TokenCache<T, R extends BasicToken<T>>
+{
+    private static final String SUFFIX = ".tokens";
+
+    private final Path directory;
+    private final long limit;
+    private final byte[] fingerprint;
+    private final List<T> types;
+    private final Set<T> known = new HashSet<>();
+    private final TokenFactory<T, R> factory;
+    private final SymbolTable symbols;
+    private final boolean enabled;
+    private long size;
+
+    public TokenCache(Path directory, long limit, String fingerprint, List<T> types, TokenFactory<T, R> factory, SymbolTable symbols)
+    {
+        this.directory = directory;
+        this.limit = limit;
+        this.fingerprint = fingerprint.getBytes(StandardCharsets.UTF_8);
+        this.types = types;
+        this.factory = factory;
+        this.symbols = symbols;
+        this.known.addAll(types);
+        long size = measure();
+        this.enabled = size >= 0;
+        this.size = Math.max(size, 0);
+    }
+
+    public boolean enabled()
+    {
+        return this.enabled;
+    }
+
+    public List<R> get(CharSequence text)
+    {
+        if(!this.enabled)
+            return null;
+        Path file = file(text);
+        try (InputStream input = Files.newInputStream(file);
+             TokenDecoder<T, R> decoder = new TokenDecoder<>(input, this.types, this.factory, this.symbols))
+        {
+            List<R> tokens = decoder.readAll();
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return tokens;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            return null;
+        }
+    }
+
+    public void put(CharSequence text, List<R> tokens)
+    {
+        if(!this.enabled)
+            return;
+        for (R token : tokens)
+        {
+            if(!this.known.contains(token.type()))
+                return;
+        }
+        Path file = file(text);
+        Path temporary = null;
+        try
+        {
+            temporary = Files.createTempFile(this.directory, "pending", ".tmp");
+            try (OutputStream output = Files.newOutputStream(temporary);
+                 TokenEncoder<T, R> encoder = new TokenEncoder<>(output, this.types))
+            {
+                encoder.write(tokens);
+            }
+            long written = Files.size(temporary);
+            synchronized (this)
+            {
+                long replaced = Files.exists(file) ? Files.size(file) : 0;
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                this.size += written - replaced;
+                evict();
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            delete(temporary);
+        }
+    }
+
+    public synchronized long size()
+    {
+        return this.size;
+    }
+
+    private long measure()
+    {
+        try
+        {
+            Files.createDirectories(this.directory);
+            long size = 0;
+            for (Path file : files())
+            {
+                size += Files.size(file);
+            }
+            return size;
+        }
+        catch (IOException e)
+        {
+            return -1;
+        }
+    }
+
+    private void evict() throws IOException
+    {
+        if(this.size <= this.limit)
+            return;
+        List<Path> files = files();
+        Map<Path, FileTime> times = new HashMap<>();
+        for (Path file : files)
+        {
+            times.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort((a, b) -> times.get(a).compareTo(times.get(b)));
+        for (int i = 0; i < files.size() && this.size > this.limit; i++)
+        {
+            long size = Files.size(files.get(i));
+            if(Files.deleteIfExists(files.get(i)))
+                this.size -= size;
+        }
+    }
+
+    private static void delete(Path file)
+    {
+        try
+        {
+            if(file != null)
+                Files.deleteIfExists(file);
+        }
+        catch (IOException e)
+        {
+        }
+    }
+
+    private List<Path> files() throws IOException
+    {
+        try (Stream<Path> files = Files.list(this.directory))
+        {
+            return new ArrayList<>(files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).toList());
+        }
+    }
+
+    private Path file(CharSequence text)
+    {
+        MessageDigest digest = digest();
+        digest.update(this.fingerprint);
+        byte[] chunk = new byte[8192];
+        int used = 0;
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            chunk[used++] = (byte) (c >> 8);
+            chunk[used++] = (byte) c;
+            if(used == chunk.length)
+            {
+                digest.update(chunk, 0, used);
+                used = 0;
+            }
+        }
+        digest.update(chunk, 0, used);
+        return this.directory.resolve(HexFormat.of().formatHex(digest.digest()) + SUFFIX);
+    }
+
+    private static MessageDigest digest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
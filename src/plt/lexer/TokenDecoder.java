@@ -0,0 +1,215 @@
+package plt.lexer;
+
+import plt.provider.Provider;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public class TokenDecoder<T, R extends BasicToken<T>> implements Provider<R>, Closeable
+{
+    private final InputStream input;
+    private final TokenFactory<T, R> factory;
+    private final SymbolTable symbols;
+    private final List<T> types = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+    private String file;
+    private int line = 1;
+    private int offset;
+    private boolean done;
+    private R next;
+
+    public TokenDecoder(InputStream input, List<T> types, TokenFactory<T, R> factory)
+    {
+        this(input, types, factory, null);
+    }
+
+    public TokenDecoder(InputStream input, List<T> types, TokenFactory<T, R> factory, SymbolTable symbols)
+    {
+        this.input = new BufferedInputStream(input);
+        this.factory = factory;
+        this.symbols = symbols;
+        try
+        {
+            if(!Arrays.equals(this.input.readNBytes(TokenEncoder.MAGIC.length), TokenEncoder.MAGIC))
+                throw new RuntimeException("Input is not a token stream!");
+            int version = varint();
+            if(version != TokenEncoder.VERSION)
+                throw new RuntimeException("Unsupported token stream version " + version + "!");
+            Map<String, T> named = new HashMap<>();
+            for (T type : types)
+            {
+                named.putIfAbsent(String.valueOf(type), type);
+            }
+            int count = varint();
+            for (int i = 0; i < count; i++)
+            {
+                this.types.add(named.get(bytes()));
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<R> readAll()
+    {
+        List<R> tokens = new ArrayList<>();
+        while (has())
+        {
+            tokens.add(next());
+        }
+        return tokens;
+    }
+
+    @Override
+    public boolean has()
+    {
+        if(this.next == null && !this.done)
+        {
+            try
+            {
+                this.next = read();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            this.done = this.next == null;
+        }
+        return this.next != null;
+    }
+
+    @Override
+    public R next()
+    {
+        R token = peek();
+        this.next = null;
+        return token;
+    }
+
+    @Override
+    public R peek()
+    {
+        if(!has())
+            throw new NoSuchElementException("No more tokens available!");
+        return this.next;
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            this.input.close();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private R read() throws IOException
+    {
+        int ordinal = varint();
+        if(ordinal == 0)
+            return null;
+        if(ordinal < 0 || ordinal > this.types.size())
+            throw new RuntimeException("Token stream refers to unknown type " + (ordinal - 1) + "!");
+        T type = this.types.get(ordinal - 1);
+        if(type == null)
+            throw new RuntimeException("Token stream uses a type that is not known to the decoder!");
+        String text = string();
+        Region region = region();
+        if(this.symbols == null)
+            return this.factory.create(text, type, region);
+        int symbol = this.symbols.id(text);
+        return this.factory.create(this.symbols.symbol(symbol), type, region, symbol);
+    }
+
+    private Region region() throws IOException
+    {
+        int kind = varint();
+        if(kind == 0)
+            return null;
+        if(kind != 1 && kind != 2)
+            throw new RuntimeException("Token stream uses unknown region kind " + kind + "!");
+        if(kind == 2)
+            this.file = string();
+        Position start = position(this.line, this.offset);
+        Position end = position(start.line(), start.offset());
+        this.line = end.line();
+        this.offset = end.offset();
+        return new Region(this.file, start, end);
+    }
+
+    private Position position(int line, int offset) throws IOException
+    {
+        int current = line + zigzag();
+        if(current == line)
+            return new Position(current, offset + zigzag());
+        return new Position(current, varint());
+    }
+
+    private String string() throws IOException
+    {
+        int kind = varint();
+        if(kind == TokenEncoder.NULL)
+            return null;
+        if(kind == TokenEncoder.INLINE)
+            return bytes();
+        if(kind == TokenEncoder.DEFINED)
+        {
+            String text = bytes();
+            this.strings.add(text);
+            return text;
+        }
+        int index = kind - TokenEncoder.REFERENCE;
+        if(index < 0 || index >= this.strings.size())
+            throw new RuntimeException("Token stream refers to unknown string " + index + "!");
+        return this.strings.get(index);
+    }
+
+    private String bytes() throws IOException
+    {
+        int length = varint();
+        if(length < 0)
+            throw new RuntimeException("Token stream contains a string of negative length " + length + "!");
+        byte[] bytes = this.input.readNBytes(length);
+        if(bytes.length != length)
+            throw new EOFException("Token stream ended inside a string!");
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int zigzag() throws IOException
+    {
+        int value = varint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int varint() throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7)
+        {
+            int b = this.input.read();
+            if(b == -1)
+                throw new EOFException("Token stream ended unexpectedly!");
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0)
+                return value;
+        }
+        throw new RuntimeException("Malformed varint in token stream!");
+    }
+}
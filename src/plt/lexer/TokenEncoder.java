@@ -0,0 +1,190 @@
+package plt.lexer;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TokenEncoder<T, R extends BasicToken<T>> implements Closeable
+{
+    static final byte[] MAGIC = { 'P', 'L', 'T', 'K' };
+    static final int VERSION = 1;
+    static final int SHARED = 32;
+
+    static final int NULL = 0;
+    static final int DEFINED = 1;
+    static final int INLINE = 2;
+    static final int REFERENCE = 3;
+
+    private final OutputStream output;
+    private final Map<T, Integer> ordinals = new HashMap<>();
+    private final Map<String, Integer> strings = new HashMap<>();
+    private String file;
+    private int line = 1;
+    private int offset;
+    private boolean finished;
+
+    public TokenEncoder(OutputStream output, List<T> types)
+    {
+        this.output = new BufferedOutputStream(output);
+        for (int i = 0; i < types.size(); i++)
+        {
+            this.ordinals.putIfAbsent(types.get(i), i);
+        }
+        try
+        {
+            this.output.write(MAGIC);
+            varint(VERSION);
+            varint(types.size());
+            for (T type : types)
+            {
+                bytes(String.valueOf(type));
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(R token)
+    {
+        if(this.finished)
+            throw new RuntimeException("Token stream is already finished!");
+        Integer ordinal = this.ordinals.get(token.type());
+        if(ordinal == null)
+            throw new RuntimeException("Type " + token.type() + " is not part of the token format!");
+        try
+        {
+            varint(ordinal + 1);
+            string(token.text());
+            region(token.region());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(List<R> tokens)
+    {
+        for (R token : tokens)
+        {
+            write(token);
+        }
+    }
+
+    public void finish()
+    {
+        try
+        {
+            if(!this.finished)
+                varint(0);
+            this.finished = true;
+            this.output.flush();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        finish();
+        try
+        {
+            this.output.close();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void region(Region region) throws IOException
+    {
+        if(region == null)
+        {
+            varint(0);
+            return;
+        }
+        if(region.file() == null ? this.file == null : region.file().equals(this.file))
+        {
+            varint(1);
+        }
+        else
+        {
+            varint(2);
+            string(region.file());
+            this.file = region.file();
+        }
+        Position start = region.start();
+        Position end = region.end();
+        position(start, this.line, this.offset);
+        position(end, start.line(), start.offset());
+        this.line = end.line();
+        this.offset = end.offset();
+    }
+
+    private void position(Position position, int line, int offset) throws IOException
+    {
+        zigzag(position.line() - line);
+        if(position.line() == line)
+            zigzag(position.offset() - offset);
+        else
+            varint(position.offset());
+    }
+
+    private void string(String text) throws IOException
+    {
+        if(text == null)
+        {
+            varint(NULL);
+            return;
+        }
+        if(text.length() > SHARED)
+        {
+            varint(INLINE);
+            bytes(text);
+            return;
+        }
+        Integer index = this.strings.get(text);
+        if(index != null)
+        {
+            varint(REFERENCE + index);
+            return;
+        }
+        this.strings.put(text, this.strings.size());
+        varint(DEFINED);
+        bytes(text);
+    }
+
+    private void bytes(String text) throws IOException
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length);
+        this.output.write(bytes);
+    }
+
+    private void zigzag(int value) throws IOException
+    {
+        varint((value << 1) ^ (value >> 31));
+    }
+
+    private void varint(int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            this.output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.output.write(value);
+    }
+}
@@ -3,4 +3,14 @@ package plt.lexer;
 public interface TokenFactory<T, V extends BasicToken<T>>
 {
     V create(String text, T type, Region region);
+
+    default V create(String text, T type, Region region, int symbol)
+    {
+        return create(text, type, region);
+    }
+
+    default V create(CharSequence text, T type, Region region, int symbol)
+    {
+        return create(text.toString(), type, region, symbol);
+    }
 }
@@ -0,0 +1,88 @@
+package plt.lexer;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+public class TokenList<R> extends AbstractList<R> implements RandomAccess
+{
+    private final List<R> tokens;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] reaches;
+    private final int length;
+    private final LineIndex lines;
+    private final int[] shifts;
+    private final Shift<R> shift;
+
+    TokenList(List<R> tokens, int[] starts, int[] ends, int[] reaches, int length, LineIndex lines)
+    {
+        this(tokens, starts, ends, reaches, length, lines, null, null);
+    }
+
+    TokenList(List<R> tokens, int[] starts, int[] ends, int[] reaches, int length, LineIndex lines, int[] shifts, Shift<R> shift)
+    {
+        this.tokens = tokens;
+        this.starts = starts;
+        this.ends = ends;
+        this.reaches = reaches;
+        this.length = length;
+        this.lines = lines;
+        this.shifts = shifts;
+        this.shift = shift;
+    }
+
+    @Override
+    public R get(int index)
+    {
+        R token = this.tokens.get(index);
+        int lines = shift(index);
+        return lines == 0 ? token : this.shift.apply(token, lines);
+    }
+
+    @Override
+    public int size()
+    {
+        return this.tokens.size();
+    }
+
+    public int start(int index)
+    {
+        return this.starts[index];
+    }
+
+    public int end(int index)
+    {
+        return this.ends[index];
+    }
+
+    int reach(int index)
+    {
+        return this.reaches[index];
+    }
+
+    R token(int index)
+    {
+        return this.tokens.get(index);
+    }
+
+    int shift(int index)
+    {
+        return this.shifts == null ? 0 : this.shifts[index];
+    }
+
+    public int length()
+    {
+        return this.length;
+    }
+
+    public LineIndex lines()
+    {
+        return this.lines;
+    }
+
+    interface Shift<R>
+    {
+        R apply(R token, int lines);
+    }
+}
@@ -0,0 +1,109 @@
+package plt.lexer.automaton;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class Automaton
+{
+    private final char[] classes;
+    private final int width;
+    private final int[] transitions;
+    private final int[] accepts;
+    private final Automaton reverse;
+
+    Automaton(char[] classes, int width, int[] transitions, int[] accepts, Automaton reverse)
+    {
+        this.classes = classes;
+        this.width = width;
+        this.transitions = transitions;
+        this.accepts = accepts;
+        this.reverse = reverse;
+    }
+
+    public static Automaton read(DataInput input) throws IOException
+    {
+        char[] classes = Classes.read(input);
+        int width = input.readInt();
+        for (char c : classes)
+        {
+            if(c >= width)
+                throw new RuntimeException("Invalid automaton character class!");
+        }
+        Automaton reverse = input.readBoolean() ? read(input, classes, width, null) : null;
+        return read(input, classes, width, reverse);
+    }
+
+    private static Automaton read(DataInput input, char[] classes, int width, Automaton reverse) throws IOException
+    {
+        int states = input.readInt();
+        if(width <= 0 || states <= 0 || (long) width * states > Integer.MAX_VALUE)
+            throw new RuntimeException("Invalid automaton table!");
+        int[] transitions = new int[width * states];
+        for (int i = 0; i < transitions.length; i++)
+        {
+            transitions[i] = input.readInt();
+            if(transitions[i] < -1 || transitions[i] >= states)
+                throw new RuntimeException("Invalid automaton transition!");
+        }
+        int[] accepts = new int[states];
+        for (int i = 0; i < states; i++)
+        {
+            accepts[i] = input.readInt();
+        }
+        return new Automaton(classes, width, transitions, accepts, reverse);
+    }
+
+    public void write(DataOutput output) throws IOException
+    {
+        Classes.write(output, this.classes);
+        output.writeInt(this.width);
+        output.writeBoolean(this.reverse != null);
+        if(this.reverse != null)
+            this.reverse.table(output);
+        table(output);
+    }
+
+    private void table(DataOutput output) throws IOException
+    {
+        output.writeInt(this.accepts.length);
+        for (int transition : this.transitions)
+        {
+            output.writeInt(transition);
+        }
+        for (int accept : this.accepts)
+        {
+            output.writeInt(accept);
+        }
+    }
+
+    public int states()
+    {
+        return this.accepts.length;
+    }
+
+    Automaton reverse()
+    {
+        return this.reverse;
+    }
+
+    int width()
+    {
+        return this.width;
+    }
+
+    int next(int state, int type)
+    {
+        return this.transitions[state * this.width + type];
+    }
+
+    int step(int state, char c)
+    {
+        return this.transitions[state * this.width + this.classes[c]];
+    }
+
+    int accept(int state)
+    {
+        return this.accepts[state];
+    }
+}
@@ -0,0 +1,308 @@
+package plt.lexer.automaton;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+public class AutomatonCompiler
+{
+    private static final int LIMIT = 20_000;
+    private static final int START = 0;
+    private static final int RESTART = -1;
+
+    private AutomatonCompiler() { }
+
+    public static Automaton compile(List<Pattern> patterns)
+    {
+        Nfa nfa = nfa(patterns);
+        char[] classes = new char[Character.MAX_VALUE + 1];
+        int width = partition(nfa, classes);
+        Automaton reverse = reverse(nfa.reverse(START), classes, width);
+        return determinize(nfa, classes, width, true, reverse);
+    }
+
+    static Automaton anchored(List<Pattern> patterns)
+    {
+        Nfa nfa = nfa(patterns);
+        char[] classes = new char[Character.MAX_VALUE + 1];
+        int width = partition(nfa, classes);
+        return determinize(nfa, classes, width, false, null);
+    }
+
+    private static Nfa nfa(List<Pattern> patterns)
+    {
+        Nfa nfa = new Nfa();
+        int start = nfa.state();
+        for (int i = 0; i < patterns.size(); i++)
+        {
+            int entry = nfa.state();
+            nfa.epsilon(start, entry);
+            Node node = PatternParser.parse(patterns.get(i));
+            if(repeatsEmpty(node))
+                throw new RuntimeException("Pattern " + patterns.get(i).pattern() + " repeats a group that can match the empty string which can not be compiled into an automaton!");
+            int exit = nfa.compile(node, entry);
+            nfa.accept(exit, i);
+        }
+        return nfa;
+    }
+
+    private static boolean repeatsEmpty(Node node)
+    {
+        if(node instanceof Node.Sequence sequence)
+            return sequence.nodes().stream().anyMatch(AutomatonCompiler::repeatsEmpty);
+        if(node instanceof Node.Alternation alternation)
+            return alternation.options().stream().anyMatch(AutomatonCompiler::repeatsEmpty);
+        if(node instanceof Node.Repeat repeat)
+            return ((repeat.max() == -1 || repeat.max() > 1) && PatternAnalysis.nullable(repeat.node())) || repeatsEmpty(repeat.node());
+        return false;
+    }
+
+    private static Automaton determinize(Nfa nfa, char[] classes, int width, boolean search, Automaton reverse)
+    {
+        Map<List<Integer>, Integer> ids = new HashMap<>();
+        List<List<Integer>> states = new ArrayList<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        List<Integer> initial = new ArrayList<>();
+        closure(nfa, List.of(START), false, new BitSet(), initial);
+        if(search)
+            initial.add(RESTART);
+        ids.put(initial, 0);
+        states.add(initial);
+        pending.add(0);
+
+        List<int[]> rows = new ArrayList<>();
+        while (!pending.isEmpty())
+        {
+            int id = pending.poll();
+            List<Integer> current = states.get(id);
+            boolean restart = current.contains(RESTART);
+            List<List<Integer>> targets = new ArrayList<>();
+            for (int c = 0; c < width; c++)
+            {
+                targets.add(null);
+            }
+            for (int s : current)
+            {
+                if(s == RESTART)
+                    continue;
+                for (Nfa.Edge edge : nfa.edges(s))
+                {
+                    for (int c = classes[edge.from()]; c <= classes[edge.to()]; c++)
+                    {
+                        if(targets.get(c) == null)
+                            targets.set(c, new ArrayList<>());
+                        targets.get(c).add(edge.target());
+                    }
+                }
+            }
+
+            int[] row = new int[width];
+            for (int c = 0; c < width; c++)
+            {
+                if(targets.get(c) == null && !restart)
+                {
+                    row[c] = -1;
+                    continue;
+                }
+                List<Integer> target = step(nfa, targets.get(c) == null ? List.of() : targets.get(c), restart);
+                Integer next = ids.get(target);
+                if(next == null)
+                {
+                    if(states.size() >= LIMIT)
+                        throw new RuntimeException("Automaton exceeds " + LIMIT + " states!");
+                    next = states.size();
+                    ids.put(target, next);
+                    states.add(target);
+                    pending.add(next);
+                }
+                row[c] = next;
+            }
+            while (rows.size() <= id)
+                rows.add(null);
+            rows.set(id, row);
+        }
+
+        int[] transitions = new int[states.size() * width];
+        int[] accepts = new int[states.size()];
+        for (int id = 0; id < states.size(); id++)
+        {
+            System.arraycopy(rows.get(id), 0, transitions, id * width, width);
+            accepts[id] = accept(nfa, states.get(id));
+        }
+        return new Automaton(classes, width, transitions, accepts, reverse);
+    }
+
+    private static Automaton reverse(Nfa nfa, char[] classes, int width)
+    {
+        Map<BitSet, Integer> ids = new HashMap<>();
+        List<BitSet> states = new ArrayList<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        BitSet initial = closure(nfa, single(nfa.size() - 1));
+        ids.put(initial, 0);
+        states.add(initial);
+        pending.add(0);
+
+        List<int[]> rows = new ArrayList<>();
+        while (!pending.isEmpty())
+        {
+            int id = pending.poll();
+            BitSet[] targets = new BitSet[width];
+            states.get(id).stream().forEach(s -> {
+                for (Nfa.Edge edge : nfa.edges(s))
+                {
+                    for (int c = classes[edge.from()]; c <= classes[edge.to()]; c++)
+                    {
+                        if(targets[c] == null)
+                            targets[c] = new BitSet();
+                        targets[c].set(edge.target());
+                    }
+                }
+            });
+
+            int[] row = new int[width];
+            for (int c = 0; c < width; c++)
+            {
+                if(targets[c] == null)
+                {
+                    row[c] = -1;
+                    continue;
+                }
+                BitSet target = closure(nfa, targets[c]);
+                Integer next = ids.get(target);
+                if(next == null)
+                {
+                    if(states.size() >= LIMIT)
+                        throw new RuntimeException("Automaton exceeds " + LIMIT + " states!");
+                    next = states.size();
+                    ids.put(target, next);
+                    states.add(target);
+                    pending.add(next);
+                }
+                row[c] = next;
+            }
+            while (rows.size() <= id)
+                rows.add(null);
+            rows.set(id, row);
+        }
+
+        int[] transitions = new int[states.size() * width];
+        int[] accepts = new int[states.size()];
+        for (int id = 0; id < states.size(); id++)
+        {
+            System.arraycopy(rows.get(id), 0, transitions, id * width, width);
+            accepts[id] = states.get(id).stream().anyMatch(s -> nfa.accept(s) >= 0) ? 0 : -1;
+        }
+        return new Automaton(classes, width, transitions, accepts, null);
+    }
+
+    private static int partition(Nfa nfa, char[] classes)
+    {
+        TreeSet<Integer> bounds = new TreeSet<>();
+        bounds.add(0);
+        for (int s = 0; s < nfa.size(); s++)
+        {
+            for (Nfa.Edge edge : nfa.edges(s))
+            {
+                bounds.add((int) edge.from());
+                if(edge.to() < Character.MAX_VALUE)
+                    bounds.add(edge.to() + 1);
+            }
+        }
+
+        int width = 0;
+        Integer bound = bounds.first();
+        while (bound != null)
+        {
+            Integer next = bounds.higher(bound);
+            int end = next == null ? Character.MAX_VALUE + 1 : next;
+            for (int c = bound; c < end; c++)
+            {
+                classes[c] = (char) width;
+            }
+            width++;
+            bound = next;
+        }
+        return width;
+    }
+
+    static BitSet single(int state)
+    {
+        BitSet set = new BitSet();
+        set.set(state);
+        return set;
+    }
+
+    static BitSet closure(Nfa nfa, BitSet states)
+    {
+        BitSet closure = (BitSet) states.clone();
+        Deque<Integer> pending = new ArrayDeque<>();
+        states.stream().forEach(pending::add);
+        while (!pending.isEmpty())
+        {
+            int state = pending.poll();
+            for (int target : nfa.epsilons(state))
+            {
+                if(!closure.get(target))
+                {
+                    closure.set(target);
+                    pending.add(target);
+                }
+            }
+        }
+        return closure;
+    }
+
+    private static List<Integer> step(Nfa nfa, List<Integer> states, boolean restart)
+    {
+        List<Integer> ordered = new ArrayList<>();
+        BitSet visited = new BitSet();
+        if(closure(nfa, states, true, visited, ordered) || !restart)
+            return ordered;
+        closure(nfa, List.of(START), false, visited, ordered);
+        ordered.add(RESTART);
+        return ordered;
+    }
+
+    private static boolean closure(Nfa nfa, List<Integer> states, boolean cut, BitSet visited, List<Integer> ordered)
+    {
+        Deque<Integer> stack = new ArrayDeque<>();
+        for (int start : states)
+        {
+            stack.push(start);
+            while (!stack.isEmpty())
+            {
+                int state = stack.pop();
+                if(visited.get(state))
+                    continue;
+                visited.set(state);
+                if(nfa.accept(state) >= 0)
+                {
+                    if(!cut)
+                        continue;
+                    ordered.add(state);
+                    return true;
+                }
+                if(!nfa.edges(state).isEmpty())
+                    ordered.add(state);
+                List<Integer> epsilons = nfa.epsilons(state);
+                for (int i = epsilons.size() - 1; i >= 0; i--)
+                {
+                    stack.push(epsilons.get(i));
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int accept(Nfa nfa, List<Integer> states)
+    {
+        int last = states.isEmpty() ? RESTART : states.get(states.size() - 1);
+        return last == RESTART ? -1 : nfa.accept(last);
+    }
+}
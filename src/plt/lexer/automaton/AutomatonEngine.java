@@ -0,0 +1,109 @@
+package plt.lexer.automaton;
+
+import plt.lexer.Engine;
+import plt.lexer.Search;
+
+public class AutomatonEngine implements Engine
+{
+    private final Automaton automaton;
+
+    public AutomatonEngine(Automaton automaton)
+    {
+        if(automaton.reverse() == null)
+            throw new RuntimeException("Automaton can not be used for searching!");
+        this.automaton = automaton;
+    }
+
+    @Override
+    public Search search(CharSequence text)
+    {
+        return new AutomatonSearch(text);
+    }
+
+    private class AutomatonSearch implements Search
+    {
+        private final CharSequence text;
+        private int start;
+        private int end;
+        private int category;
+        private boolean hit;
+        private int reach;
+
+        private AutomatonSearch(CharSequence text)
+        {
+            this.text = text;
+        }
+
+        @Override
+        public boolean find(int from)
+        {
+            int length = this.text.length();
+            int state = 0;
+            int category = -1;
+            int end = -1;
+            int i = from;
+            while (i < length && state >= 0)
+            {
+                state = automaton.step(state, this.text.charAt(i++));
+                int accept = state < 0 ? -1 : automaton.accept(state);
+                if(accept >= 0)
+                {
+                    category = accept;
+                    end = i;
+                }
+            }
+            this.hit = state >= 0;
+            this.reach = state >= 0 ? length + 1 : i;
+            if(category < 0)
+                return false;
+            this.start = start(from, end);
+            this.end = end;
+            this.category = category;
+            return true;
+        }
+
+        private int start(int from, int end)
+        {
+            Automaton reverse = automaton.reverse();
+            int state = 0;
+            int start = end;
+            for (int i = end; i > from && state >= 0; )
+            {
+                state = reverse.step(state, this.text.charAt(--i));
+                if(state >= 0 && reverse.accept(state) >= 0)
+                    start = i;
+            }
+            return start;
+        }
+
+        @Override
+        public int start()
+        {
+            return this.start;
+        }
+
+        @Override
+        public int end()
+        {
+            return this.end;
+        }
+
+        @Override
+        public int category()
+        {
+            return this.category;
+        }
+
+        @Override
+        public boolean hitEnd()
+        {
+            return this.hit;
+        }
+
+        @Override
+        public int reach()
+        {
+            return this.reach;
+        }
+    }
+}
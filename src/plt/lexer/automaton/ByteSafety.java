@@ -0,0 +1,42 @@
+package plt.lexer.automaton;
+
+import java.util.regex.Pattern;
+
+public final class ByteSafety
+{
+    private static final CharSet HIGH = CharSet.range(0x80, CharSet.MAX);
+
+    private ByteSafety()
+    {
+    }
+
+    public static boolean isSafe(Pattern pattern)
+    {
+        Node node;
+        try
+        {
+            node = PatternParser.parse(pattern);
+        }
+        catch (RuntimeException e)
+        {
+            return false;
+        }
+        return isSafe(node, false);
+    }
+
+    private static boolean isSafe(Node node, boolean repeated)
+    {
+        if(node instanceof Node.Chars chars)
+        {
+            CharSet high = chars.set().intersect(HIGH);
+            return high.isEmpty() || (repeated && high.size() == 1 && high.from(0) == 0x80 && high.to(0) == CharSet.MAX);
+        }
+        if(node instanceof Node.Sequence sequence)
+            return sequence.nodes().stream().allMatch(n -> isSafe(n, repeated));
+        if(node instanceof Node.Alternation alternation)
+            return alternation.options().stream().allMatch(n -> isSafe(n, repeated));
+        if(node instanceof Node.Repeat repeat)
+            return isSafe(repeat.node(), repeated || repeat.max() == -1);
+        return false;
+    }
+}
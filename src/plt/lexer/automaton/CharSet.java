@@ -0,0 +1,123 @@
+package plt.lexer.automaton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class CharSet
+{
+    static final int MAX = Character.MAX_CODE_POINT;
+
+    static final CharSet EMPTY = new CharSet(new int[0]);
+    static final CharSet ALL = range(0, MAX);
+
+    private final int[] ranges;
+
+    private CharSet(int[] ranges)
+    {
+        this.ranges = ranges;
+    }
+
+    static CharSet of(int c)
+    {
+        return range(c, c);
+    }
+
+    static CharSet range(int from, int to)
+    {
+        if(from > to)
+            throw new RuntimeException("Illegal character range " + from + "-" + to + "!");
+        return new CharSet(new int[] { from, to });
+    }
+
+    static CharSet of(String chars)
+    {
+        CharSet set = EMPTY;
+        for (int i = 0; i < chars.length(); i++)
+        {
+            set = set.union(of(chars.charAt(i)));
+        }
+        return set;
+    }
+
+    int size()
+    {
+        return this.ranges.length / 2;
+    }
+
+    int from(int range)
+    {
+        return this.ranges[range * 2];
+    }
+
+    int to(int range)
+    {
+        return this.ranges[range * 2 + 1];
+    }
+
+    boolean isEmpty()
+    {
+        return this.ranges.length == 0;
+    }
+
+    boolean contains(int c)
+    {
+        for (int i = 0; i < size(); i++)
+        {
+            if(from(i) <= c && c <= to(i))
+                return true;
+        }
+        return false;
+    }
+
+    CharSet union(CharSet other)
+    {
+        List<int[]> all = new ArrayList<>();
+        for (int i = 0; i < size(); i++)
+            all.add(new int[] { from(i), to(i) });
+        for (int i = 0; i < other.size(); i++)
+            all.add(new int[] { other.from(i), other.to(i) });
+        all.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        List<int[]> merged = new ArrayList<>();
+        for (int[] range : all)
+        {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if(last != null && range[0] <= last[1] + 1)
+                last[1] = Math.max(last[1], range[1]);
+            else
+                merged.add(range.clone());
+        }
+        return create(merged);
+    }
+
+    CharSet complement()
+    {
+        List<int[]> inverted = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < size(); i++)
+        {
+            if(from(i) > next)
+                inverted.add(new int[] { next, from(i) - 1 });
+            next = to(i) + 1;
+        }
+        if(next <= MAX)
+            inverted.add(new int[] { next, MAX });
+        return create(inverted);
+    }
+
+    CharSet intersect(CharSet other)
+    {
+        return complement().union(other.complement()).complement();
+    }
+
+    private static CharSet create(List<int[]> ranges)
+    {
+        int[] flat = new int[ranges.size() * 2];
+        for (int i = 0; i < ranges.size(); i++)
+        {
+            flat[i * 2] = ranges.get(i)[0];
+            flat[i * 2 + 1] = ranges.get(i)[1];
+        }
+        return new CharSet(flat);
+    }
+}
@@ -0,0 +1,52 @@
+package plt.lexer.automaton;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+final class Classes
+{
+    private Classes() { }
+
+    static void write(DataOutput output, char[] classes) throws IOException
+    {
+        int runs = 0;
+        for (int c = 0; c < classes.length; c++)
+        {
+            if(c == 0 || classes[c] != classes[c - 1])
+                runs++;
+        }
+        output.writeInt(runs);
+        for (int c = 0; c < classes.length; c++)
+        {
+            if(c == 0 || classes[c] != classes[c - 1])
+            {
+                output.writeChar(c);
+                output.writeChar(classes[c]);
+            }
+        }
+    }
+
+    static char[] read(DataInput input) throws IOException
+    {
+        char[] classes = new char[Character.MAX_VALUE + 1];
+        int runs = input.readInt();
+        if(runs <= 0 || runs > classes.length)
+            throw new RuntimeException("Invalid character class table!");
+        int previous = -1;
+        char value = 0;
+        for (int i = 0; i < runs; i++)
+        {
+            int start = input.readChar();
+            if(start <= previous || (i == 0 && start != 0))
+                throw new RuntimeException("Invalid character class table!");
+            if(previous >= 0)
+                Arrays.fill(classes, previous, start, value);
+            previous = start;
+            value = input.readChar();
+        }
+        Arrays.fill(classes, previous, classes.length, value);
+        return classes;
+    }
+}
@@ -0,0 +1,184 @@
+package plt.lexer.automaton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Nfa
+{
+    private static final int LIMIT = 100_000;
+
+    record Edge(char from, char to, int target) { }
+
+    private final List<List<Integer>> epsilons = new ArrayList<>();
+    private final List<List<Edge>> edges = new ArrayList<>();
+    private final List<Integer> accepts = new ArrayList<>();
+
+    int size()
+    {
+        return this.epsilons.size();
+    }
+
+    List<Integer> epsilons(int state)
+    {
+        return this.epsilons.get(state);
+    }
+
+    List<Edge> edges(int state)
+    {
+        return this.edges.get(state);
+    }
+
+    int accept(int state)
+    {
+        return this.accepts.get(state);
+    }
+
+    int state()
+    {
+        if(size() >= LIMIT)
+            throw new RuntimeException("Pattern is too large to be compiled into an automaton!");
+        this.epsilons.add(new ArrayList<>());
+        this.edges.add(new ArrayList<>());
+        this.accepts.add(-1);
+        return size() - 1;
+    }
+
+    void accept(int state, int category)
+    {
+        this.accepts.set(state, category);
+    }
+
+    void epsilon(int from, int to)
+    {
+        this.epsilons.get(from).add(to);
+    }
+
+    void edge(int from, int lower, int upper, int to)
+    {
+        this.edges.get(from).add(new Edge((char) lower, (char) upper, to));
+    }
+
+    Nfa reverse(int start)
+    {
+        Nfa reversed = new Nfa();
+        for (int s = 0; s <= size(); s++)
+        {
+            reversed.state();
+        }
+        int entry = size();
+        for (int s = 0; s < size(); s++)
+        {
+            for (int target : epsilons(s))
+            {
+                reversed.epsilon(target, s);
+            }
+            for (Edge edge : edges(s))
+            {
+                reversed.edge(edge.target(), edge.from(), edge.to(), s);
+            }
+            if(accept(s) >= 0)
+                reversed.epsilon(entry, s);
+        }
+        reversed.accept(start, 0);
+        return reversed;
+    }
+
+    int compile(Node node, int from)
+    {
+        if(node instanceof Node.Chars chars)
+            return compile(chars.set(), from);
+        if(node instanceof Node.Sequence sequence)
+        {
+            int current = from;
+            for (Node element : sequence.nodes())
+            {
+                current = compile(element, current);
+            }
+            return current;
+        }
+        if(node instanceof Node.Alternation alternation)
+        {
+            int to = state();
+            for (Node option : alternation.options())
+            {
+                int start = state();
+                epsilon(from, start);
+                epsilon(compile(option, start), to);
+            }
+            return to;
+        }
+        if(node instanceof Node.Repeat repeat)
+            return compile(repeat, from);
+        throw new RuntimeException("Unknown node " + node + "!");
+    }
+
+    private int compile(Node.Repeat repeat, int from)
+    {
+        int current = from;
+        for (int i = 0; i < repeat.min(); i++)
+        {
+            current = compile(repeat.node(), current);
+        }
+
+        int to = state();
+        if(repeat.max() == -1)
+        {
+            int loop = state();
+            epsilon(current, loop);
+            epsilon(compile(repeat.node(), loop), loop);
+            epsilon(loop, to);
+            return to;
+        }
+
+        for (int i = repeat.min(); i < repeat.max(); i++)
+        {
+            int entry = state();
+            epsilon(current, entry);
+            epsilon(current, to);
+            current = compile(repeat.node(), entry);
+        }
+        epsilon(current, to);
+        return to;
+    }
+
+    private int compile(CharSet set, int from)
+    {
+        int to = state();
+        for (int i = 0; i < set.size(); i++)
+        {
+            if(set.to(i) > Character.MAX_VALUE)
+                supplementary(Math.max(set.from(i), Character.MIN_SUPPLEMENTARY_CODE_POINT), set.to(i), from, to);
+        }
+        for (int i = 0; i < set.size(); i++)
+        {
+            if(set.from(i) <= Character.MAX_VALUE)
+                edge(from, set.from(i), Math.min(set.to(i), Character.MAX_VALUE), to);
+        }
+        return to;
+    }
+
+    private void supplementary(int lower, int upper, int from, int to)
+    {
+        char lowerHigh = Character.highSurrogate(lower);
+        char lowerLow = Character.lowSurrogate(lower);
+        char upperHigh = Character.highSurrogate(upper);
+        char upperLow = Character.lowSurrogate(upper);
+
+        if(lowerHigh == upperHigh)
+        {
+            pair(from, lowerHigh, lowerHigh, lowerLow, upperLow, to);
+            return;
+        }
+        pair(from, lowerHigh, lowerHigh, lowerLow, Character.MAX_LOW_SURROGATE, to);
+        if(lowerHigh + 1 <= upperHigh - 1)
+            pair(from, lowerHigh + 1, upperHigh - 1, Character.MIN_LOW_SURROGATE, Character.MAX_LOW_SURROGATE, to);
+        pair(from, upperHigh, upperHigh, Character.MIN_LOW_SURROGATE, upperLow, to);
+    }
+
+    private void pair(int from, int highLower, int highUpper, int lowLower, int lowUpper, int to)
+    {
+        int middle = state();
+        edge(from, highLower, highUpper, middle);
+        edge(middle, lowLower, lowUpper, to);
+    }
+}
@@ -0,0 +1,14 @@
+package plt.lexer.automaton;
+
+import java.util.List;
+
+sealed interface Node
+{
+    record Chars(CharSet set) implements Node { }
+
+    record Sequence(List<Node> nodes) implements Node { }
+
+    record Alternation(List<Node> options) implements Node { }
+
+    record Repeat(Node node, int min, int max, int position) implements Node { }
+}
@@ -0,0 +1,199 @@
+package plt.lexer.automaton;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public final class PatternAnalysis
+{
+    private final String pattern;
+    private final List<String> hazards = new ArrayList<>();
+    private final List<Integer> possessive = new ArrayList<>();
+
+    private PatternAnalysis(String pattern)
+    {
+        this.pattern = pattern;
+    }
+
+    public static boolean isNullable(Pattern pattern)
+    {
+        Node node = parse(pattern);
+        return node == null ? pattern.matcher("").lookingAt() : nullable(node);
+    }
+
+    public static List<String> hazards(Pattern pattern)
+    {
+        return analyze(pattern).hazards;
+    }
+
+    public static Pattern possessive(Pattern pattern)
+    {
+        List<Integer> positions = analyze(pattern).possessive;
+        if(positions.isEmpty())
+            return pattern;
+        StringBuilder rewritten = new StringBuilder(pattern.pattern());
+        positions.stream()
+                .sorted((a, b) -> Integer.compare(b, a))
+                .forEach(position -> rewritten.insert((int) position, '+'));
+        return Pattern.compile(rewritten.toString(), pattern.flags());
+    }
+
+    public static boolean shadows(Pattern first, Pattern second)
+    {
+        Automaton automaton;
+        try
+        {
+            if(isNullable(first))
+                return false;
+            automaton = AutomatonCompiler.anchored(List.of(first, second));
+        }
+        catch (RuntimeException e)
+        {
+            return false;
+        }
+        BitSet visited = new BitSet();
+        Deque<Integer> pending = new ArrayDeque<>();
+        visited.set(0);
+        pending.add(0);
+        while (!pending.isEmpty())
+        {
+            int state = pending.poll();
+            int accept = automaton.accept(state);
+            if(accept == 1)
+                return false;
+            if(accept == 0)
+                continue;
+            for (int group = 0; group < automaton.width(); group++)
+            {
+                int next = automaton.next(state, group);
+                if(next >= 0 && !visited.get(next))
+                {
+                    visited.set(next);
+                    pending.add(next);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static PatternAnalysis analyze(Pattern pattern)
+    {
+        PatternAnalysis analysis = new PatternAnalysis(pattern.pattern());
+        Node node = parse(pattern);
+        if(node != null)
+            analysis.visit(node, CharSet.EMPTY, false);
+        return analysis;
+    }
+
+    private static Node parse(Pattern pattern)
+    {
+        try
+        {
+            return PatternParser.parse(pattern);
+        }
+        catch (RuntimeException e)
+        {
+            return null;
+        }
+    }
+
+    private void visit(Node node, CharSet follow, boolean loop)
+    {
+        if(node instanceof Node.Sequence sequence)
+        {
+            List<Node> nodes = sequence.nodes();
+            for (int i = nodes.size() - 1; i >= 0; i--)
+            {
+                visit(nodes.get(i), follow, loop);
+                if(i + 1 < nodes.size() && isUnbounded(nodes.get(i)) && isUnbounded(nodes.get(i + 1))
+                        && !first(nodes.get(i)).intersect(first(nodes.get(i + 1))).isEmpty())
+                    hazard("adjacent quantifiers at index " + (position(nodes.get(i + 1)) - 1) + " can match the same characters");
+                follow = nullable(nodes.get(i)) ? first(nodes.get(i)).union(follow) : first(nodes.get(i));
+            }
+        }
+        else if(node instanceof Node.Alternation alternation)
+        {
+            List<Node> options = alternation.options();
+            for (int i = 0; i < options.size(); i++)
+            {
+                visit(options.get(i), follow, loop);
+                for (int j = 0; loop && j < i; j++)
+                {
+                    if(!first(options.get(i)).intersect(first(options.get(j))).isEmpty())
+                    {
+                        hazard("alternatives " + (j + 1) + " and " + (i + 1) + " of a repeated alternation start with the same characters");
+                        break;
+                    }
+                }
+            }
+        }
+        else if(node instanceof Node.Repeat repeat)
+        {
+            boolean repeated = repeat.max() == -1 || repeat.max() > 1;
+            CharSet first = first(repeat.node());
+            boolean overlapping = !first.intersect(follow).isEmpty();
+            if(repeated && loop && overlapping)
+                hazard("nested quantifier at index " + (repeat.position() - 1) + " can split its input between iterations in many ways, consider an atomic group");
+            else if(!overlapping && repeat.node() instanceof Node.Chars && repeat.max() != 0)
+                this.possessive.add(repeat.position());
+            visit(repeat.node(), repeated ? first.union(follow) : follow, loop || repeat.max() == -1);
+        }
+    }
+
+    private void hazard(String message)
+    {
+        this.hazards.add("Pattern " + this.pattern + ": " + message);
+    }
+
+    private static boolean isUnbounded(Node node)
+    {
+        return node instanceof Node.Repeat repeat && repeat.max() == -1 && repeat.node() instanceof Node.Chars;
+    }
+
+    private static int position(Node node)
+    {
+        return ((Node.Repeat) node).position();
+    }
+
+    static boolean nullable(Node node)
+    {
+        if(node instanceof Node.Sequence sequence)
+            return sequence.nodes().stream().allMatch(PatternAnalysis::nullable);
+        if(node instanceof Node.Alternation alternation)
+            return alternation.options().stream().anyMatch(PatternAnalysis::nullable);
+        if(node instanceof Node.Repeat repeat)
+            return repeat.min() == 0 || nullable(repeat.node());
+        return false;
+    }
+
+    private static CharSet first(Node node)
+    {
+        if(node instanceof Node.Chars chars)
+            return chars.set();
+        if(node instanceof Node.Sequence sequence)
+        {
+            CharSet first = CharSet.EMPTY;
+            for (Node element : sequence.nodes())
+            {
+                first = first.union(first(element));
+                if(!nullable(element))
+                    break;
+            }
+            return first;
+        }
+        if(node instanceof Node.Alternation alternation)
+        {
+            CharSet first = CharSet.EMPTY;
+            for (Node option : alternation.options())
+            {
+                first = first.union(first(option));
+            }
+            return first;
+        }
+        Node.Repeat repeat = (Node.Repeat) node;
+        return repeat.max() == 0 ? CharSet.EMPTY : first(repeat.node());
+    }
+}
@@ -0,0 +1,424 @@
+package plt.lexer.automaton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+final class PatternParser
+{
+    private static final CharSet DIGIT = CharSet.range('0', '9');
+    private static final CharSet WORD = CharSet.range('a', 'z')
+            .union(CharSet.range('A', 'Z'))
+            .union(CharSet.of('_'))
+            .union(DIGIT);
+    private static final CharSet SPACE = CharSet.of(" \t\n\u000B\f\r");
+    private static final CharSet HORIZONTAL = CharSet.of(" \t\u00A0\u1680\u180E\u202F\u205F\u3000")
+            .union(CharSet.range(0x2000, 0x200A));
+    private static final CharSet VERTICAL = CharSet.of("\n\u000B\f\r\u0085\u2028\u2029");
+    private static final CharSet DOT = CharSet.of("\n\r\u0085\u2028\u2029").complement();
+    private static final CharSet LOWER = CharSet.range('a', 'z');
+    private static final CharSet UPPER = CharSet.range('A', 'Z');
+    private static final CharSet PUNCT = CharSet.of("!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~");
+
+    private final String pattern;
+    private int index;
+
+    private PatternParser(String pattern)
+    {
+        this.pattern = pattern;
+    }
+
+    static Node parse(Pattern pattern)
+    {
+        if(pattern.flags() != 0)
+            throw unsupported(pattern.pattern(), "pattern flags");
+        PatternParser parser = new PatternParser(pattern.pattern());
+        Node node = parser.alternation();
+        if(parser.has())
+            throw parser.error("unexpected '" + parser.current() + "'");
+        return node;
+    }
+
+    private Node alternation()
+    {
+        List<Node> options = new ArrayList<>();
+        options.add(sequence());
+        while (has() && current() == '|')
+        {
+            this.index++;
+            options.add(sequence());
+        }
+        return options.size() == 1 ? options.get(0) : new Node.Alternation(options);
+    }
+
+    private Node sequence()
+    {
+        List<Node> nodes = new ArrayList<>();
+        while (has() && current() != '|' && current() != ')')
+        {
+            nodes.add(quantified());
+        }
+        return nodes.size() == 1 ? nodes.get(0) : new Node.Sequence(nodes);
+    }
+
+    private Node quantified()
+    {
+        Node node = atom();
+        while (has())
+        {
+            char c = current();
+            if(c == '*')
+                node = new Node.Repeat(node, 0, -1, this.index + 1);
+            else if(c == '+')
+                node = new Node.Repeat(node, 1, -1, this.index + 1);
+            else if(c == '?')
+                node = new Node.Repeat(node, 0, 1, this.index + 1);
+            else if(c == '{')
+                node = counted(node);
+            else
+                return node;
+
+            if(c != '{')
+                this.index++;
+            if(has() && current() == '?')
+                throw unsupported(this.pattern, "lazy quantifiers");
+            if(has() && current() == '+')
+                throw unsupported(this.pattern, "possessive quantifiers");
+        }
+        return node;
+    }
+
+    private Node counted(Node node)
+    {
+        this.index++;
+        int min = number();
+        int max = min;
+        if(has() && current() == ',')
+        {
+            this.index++;
+            max = has() && current() == '}' ? -1 : number();
+        }
+        expect('}');
+        if(max != -1 && max < min)
+            throw error("illegal repetition range");
+        return new Node.Repeat(node, min, max, this.index);
+    }
+
+    private int number()
+    {
+        int start = this.index;
+        while (has() && Character.isDigit(current()))
+        {
+            this.index++;
+        }
+        if(start == this.index)
+            throw error("number expected");
+        return Integer.parseInt(this.pattern.substring(start, this.index));
+    }
+
+    private Node atom()
+    {
+        char c = current();
+        switch (c)
+        {
+            case '(':
+                return group();
+            case '[':
+                this.index++;
+                return new Node.Chars(characterClass());
+            case '.':
+                this.index++;
+                return new Node.Chars(DOT);
+            case '\\':
+                this.index++;
+                return escape();
+            case '^':
+            case '$':
+                throw unsupported(this.pattern, "anchors");
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw error("dangling meta character '" + c + "'");
+            default:
+                return new Node.Chars(CharSet.of(codePoint()));
+        }
+    }
+
+    private Node group()
+    {
+        this.index++;
+        if(has() && current() == '?')
+        {
+            this.index++;
+            if(has() && current() == ':')
+            {
+                this.index++;
+            }
+            else if(has() && current() == '<' && this.index + 1 < this.pattern.length() && Character.isLetter(this.pattern.charAt(this.index + 1)))
+            {
+                int close = this.pattern.indexOf('>', this.index);
+                if(close == -1)
+                    throw error("unterminated group name");
+                this.index = close + 1;
+            }
+            else
+            {
+                throw unsupported(this.pattern, "special groups");
+            }
+        }
+        Node node = alternation();
+        expect(')');
+        return node;
+    }
+
+    private Node escape()
+    {
+        if(!has())
+            throw error("unexpected end of pattern");
+        char c = current();
+        if(c == 'Q')
+        {
+            this.index++;
+            int end = this.pattern.indexOf("\\E", this.index);
+            if(end == -1)
+                end = this.pattern.length();
+            List<Node> literals = new ArrayList<>();
+            this.pattern.substring(this.index, end)
+                    .codePoints()
+                    .forEach(p -> literals.add(new Node.Chars(CharSet.of(p))));
+            this.index = Math.min(end + 2, this.pattern.length());
+            return new Node.Sequence(literals);
+        }
+        return new Node.Chars(escapeSet());
+    }
+
+    private CharSet escapeSet()
+    {
+        char c = current();
+        this.index++;
+        return switch (c)
+        {
+            case 'd' -> DIGIT;
+            case 'D' -> DIGIT.complement();
+            case 'w' -> WORD;
+            case 'W' -> WORD.complement();
+            case 's' -> SPACE;
+            case 'S' -> SPACE.complement();
+            case 'h' -> HORIZONTAL;
+            case 'H' -> HORIZONTAL.complement();
+            case 'v' -> VERTICAL;
+            case 'V' -> VERTICAL.complement();
+            case 'p' -> property();
+            case 'P' -> property().complement();
+            case 't' -> CharSet.of('\t');
+            case 'n' -> CharSet.of('\n');
+            case 'r' -> CharSet.of('\r');
+            case 'f' -> CharSet.of('\f');
+            case 'a' -> CharSet.of('\u0007');
+            case 'e' -> CharSet.of('\u001B');
+            case '0' -> CharSet.of(octal());
+            case 'x' -> CharSet.of(hexadecimal());
+            case 'u' -> CharSet.of(hex(4));
+            case 'c' -> CharSet.of(next() ^ 64);
+            case 'b', 'B', 'A', 'G', 'Z', 'z' -> throw unsupported(this.pattern, "anchors");
+            case 'k', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> throw unsupported(this.pattern, "back references");
+            default -> {
+                if(Character.isLetterOrDigit(c))
+                    throw unsupported(this.pattern, "escape \\" + c);
+                yield CharSet.of(c);
+            }
+        };
+    }
+
+    private CharSet property()
+    {
+        String name;
+        if(has() && current() == '{')
+        {
+            int close = this.pattern.indexOf('}', this.index);
+            if(close == -1)
+                throw error("unterminated property");
+            name = this.pattern.substring(this.index + 1, close);
+            this.index = close + 1;
+        }
+        else
+        {
+            name = String.valueOf(next());
+        }
+        return switch (name)
+        {
+            case "Lower" -> LOWER;
+            case "Upper" -> UPPER;
+            case "ASCII" -> CharSet.range(0, 0x7F);
+            case "Alpha" -> LOWER.union(UPPER);
+            case "Digit" -> DIGIT;
+            case "Alnum" -> LOWER.union(UPPER).union(DIGIT);
+            case "Punct" -> PUNCT;
+            case "Graph" -> LOWER.union(UPPER).union(DIGIT).union(PUNCT);
+            case "Print" -> LOWER.union(UPPER).union(DIGIT).union(PUNCT).union(CharSet.of(' '));
+            case "Blank" -> CharSet.of(" \t");
+            case "Cntrl" -> CharSet.range(0, 0x1F).union(CharSet.of(0x7F));
+            case "XDigit" -> DIGIT.union(CharSet.range('a', 'f')).union(CharSet.range('A', 'F'));
+            case "Space" -> SPACE;
+            default -> throw unsupported(this.pattern, "property " + name);
+        };
+    }
+
+    private int octal()
+    {
+        int value = 0;
+        int digits = 0;
+        while (has() && digits < 3 && current() >= '0' && current() <= '7' && value * 8 + (current() - '0') <= 0377)
+        {
+            value = value * 8 + (next() - '0');
+            digits++;
+        }
+        if(digits == 0)
+            throw error("illegal octal escape");
+        return value;
+    }
+
+    private int hexadecimal()
+    {
+        if(has() && current() == '{')
+        {
+            int close = this.pattern.indexOf('}', this.index);
+            if(close == -1)
+                throw error("unterminated hexadecimal escape");
+            int value = Integer.parseInt(this.pattern.substring(this.index + 1, close), 16);
+            this.index = close + 1;
+            return value;
+        }
+        return hex(2);
+    }
+
+    private int hex(int digits)
+    {
+        if(this.index + digits > this.pattern.length())
+            throw error("illegal hexadecimal escape");
+        int value = Integer.parseInt(this.pattern.substring(this.index, this.index + digits), 16);
+        this.index += digits;
+        return value;
+    }
+
+    private CharSet characterClass()
+    {
+        boolean negated = has() && current() == '^';
+        if(negated)
+            this.index++;
+
+        CharSet intersection = null;
+        CharSet union = CharSet.EMPTY;
+        boolean first = true;
+        while (true)
+        {
+            if(!has())
+                throw error("unclosed character class");
+            char c = current();
+            if(c == ']' && !first)
+                break;
+            first = false;
+            if(this.pattern.startsWith("&&", this.index))
+            {
+                this.index += 2;
+                intersection = intersection == null ? union : intersection.intersect(union);
+                union = CharSet.EMPTY;
+            }
+            else if(c == '[')
+            {
+                this.index++;
+                union = union.union(characterClass());
+            }
+            else
+            {
+                union = union.union(classRange());
+            }
+        }
+        this.index++;
+
+        CharSet result = intersection == null ? union : intersection.intersect(union);
+        return negated ? result.complement() : result;
+    }
+
+    private CharSet classRange()
+    {
+        if(current() == '\\')
+        {
+            this.index++;
+            if(!has())
+                throw error("unexpected end of pattern");
+            CharSet set = escapeSet();
+            if(set.size() != 1 || set.from(0) != set.to(0))
+                return set;
+            return classRangeFrom(set.from(0));
+        }
+        return classRangeFrom(codePoint());
+    }
+
+    private CharSet classRangeFrom(int from)
+    {
+        if(this.index + 1 < this.pattern.length() && current() == '-' && this.pattern.charAt(this.index + 1) != ']' && this.pattern.charAt(this.index + 1) != '[')
+        {
+            this.index++;
+            int to;
+            if(current() == '\\')
+            {
+                this.index++;
+                CharSet set = escapeSet();
+                if(set.size() != 1 || set.from(0) != set.to(0))
+                    throw error("illegal character range");
+                to = set.from(0);
+            }
+            else
+            {
+                to = codePoint();
+            }
+            if(to < from)
+                throw error("illegal character range");
+            return CharSet.range(from, to);
+        }
+        return CharSet.of(from);
+    }
+
+    private int codePoint()
+    {
+        int c = this.pattern.codePointAt(this.index);
+        this.index += Character.charCount(c);
+        return c;
+    }
+
+    private void expect(char c)
+    {
+        if(!has() || current() != c)
+            throw error("'" + c + "' expected");
+        this.index++;
+    }
+
+    private char next()
+    {
+        if(!has())
+            throw error("unexpected end of pattern");
+        return this.pattern.charAt(this.index++);
+    }
+
+    private boolean has()
+    {
+        return this.index < this.pattern.length();
+    }
+
+    private char current()
+    {
+        return this.pattern.charAt(this.index);
+    }
+
+    private RuntimeException error(String message)
+    {
+        return new RuntimeException("Invalid pattern " + this.pattern + " at " + this.index + ": " + message + "!");
+    }
+
+    private static RuntimeException unsupported(String pattern, String feature)
+    {
+        return new RuntimeException("Pattern " + pattern + " uses " + feature + " which can not be compiled into an automaton!");
+    }
+}
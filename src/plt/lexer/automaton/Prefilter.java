@@ -0,0 +1,145 @@
+package plt.lexer.automaton;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+public final class Prefilter
+{
+    private final char[] classes;
+    private final int[][] candidates;
+
+    private Prefilter(char[] classes, int[][] candidates)
+    {
+        this.classes = classes;
+        this.candidates = candidates;
+    }
+
+    public static Prefilter of(List<Pattern> patterns)
+    {
+        return create(patterns.stream().map(Prefilter::start).toList());
+    }
+
+    public static Prefilter create(List<BitSet> starts)
+    {
+        TreeSet<Integer> bounds = new TreeSet<>();
+        bounds.add(0);
+        for (BitSet start : starts)
+        {
+            for (int c = start.nextSetBit(0); c >= 0; c = start.nextSetBit(c))
+            {
+                bounds.add(c);
+                c = start.nextClearBit(c);
+                if(c <= Character.MAX_VALUE)
+                    bounds.add(c);
+            }
+        }
+
+        char[] classes = new char[Character.MAX_VALUE + 1];
+        Map<List<Integer>, Integer> ids = new HashMap<>();
+        List<int[]> candidates = new ArrayList<>();
+        Integer bound = bounds.first();
+        while (bound != null)
+        {
+            Integer next = bounds.higher(bound);
+            int end = next == null ? Character.MAX_VALUE + 1 : next;
+            List<Integer> categories = new ArrayList<>();
+            for (int i = 0; i < starts.size(); i++)
+            {
+                if(starts.get(i).get(bound))
+                    categories.add(i);
+            }
+            Integer id = ids.get(categories);
+            if(id == null)
+            {
+                id = candidates.size();
+                ids.put(categories, id);
+                candidates.add(categories.stream().mapToInt(Integer::intValue).toArray());
+            }
+            Arrays.fill(classes, bound, end, (char) id.intValue());
+            bound = next;
+        }
+        return new Prefilter(classes, candidates.toArray(new int[0][]));
+    }
+
+    public static Prefilter read(DataInput input) throws IOException
+    {
+        char[] classes = Classes.read(input);
+        int[][] candidates = new int[input.readInt()][];
+        for (int i = 0; i < candidates.length; i++)
+        {
+            candidates[i] = new int[input.readInt()];
+            for (int j = 0; j < candidates[i].length; j++)
+            {
+                candidates[i][j] = input.readInt();
+            }
+        }
+        for (char c : classes)
+        {
+            if(c >= candidates.length)
+                throw new RuntimeException("Invalid prefilter character class!");
+        }
+        return new Prefilter(classes, candidates);
+    }
+
+    public void write(DataOutput output) throws IOException
+    {
+        Classes.write(output, this.classes);
+        output.writeInt(this.candidates.length);
+        for (int[] candidates : this.candidates)
+        {
+            output.writeInt(candidates.length);
+            for (int candidate : candidates)
+            {
+                output.writeInt(candidate);
+            }
+        }
+    }
+
+    public int[] candidates(char c)
+    {
+        return this.candidates[this.classes[c]];
+    }
+
+    public static BitSet start(Pattern pattern)
+    {
+        BitSet start = new BitSet(Character.MAX_VALUE + 1);
+        Nfa nfa = new Nfa();
+        int entry = nfa.state();
+        int exit = compile(nfa, pattern, entry);
+        BitSet closure = exit == -1 ? null : AutomatonCompiler.closure(nfa, AutomatonCompiler.single(entry));
+        if(closure == null || closure.get(exit))
+        {
+            start.set(0, Character.MAX_VALUE + 1);
+            return start;
+        }
+        for (int s = closure.nextSetBit(0); s >= 0; s = closure.nextSetBit(s + 1))
+        {
+            for (Nfa.Edge edge : nfa.edges(s))
+            {
+                start.set(edge.from(), edge.to() + 1);
+            }
+        }
+        return start;
+    }
+
+    private static int compile(Nfa nfa, Pattern pattern, int entry)
+    {
+        try
+        {
+            return nfa.compile(PatternParser.parse(pattern), entry);
+        }
+        catch (RuntimeException e)
+        {
+            return -1;
+        }
+    }
+}
@@ -29,4 +29,16 @@ public class ListProvider<T> implements Provider<T>
     {
         return this.elements.get(this.index);
     }
+
+    int index()
+    {
+        return this.index;
+    }
+
+    void index(int index)
+    {
+        if(index < 0 || index > this.elements.size())
+            throw new RuntimeException("Mark " + index + " is outside of the elements!");
+        this.index = index;
+    }
 }
@@ -0,0 +1,80 @@
+package plt.provider;
+
+import java.util.NoSuchElementException;
+
+public class RingProvider<T> implements Provider<T>
+{
+    private final Provider<T> source;
+    private final int capacity;
+    private final Object[] ring;
+    private final int mask;
+    private int head;
+    private int size;
+
+    public RingProvider(Provider<T> source, int capacity)
+    {
+        if(capacity <= 0)
+            throw new RuntimeException("Lookahead capacity " + capacity + " has to be positive!");
+        this.source = source;
+        this.capacity = capacity;
+        this.ring = new Object[Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1];
+        this.mask = this.ring.length - 1;
+    }
+
+    public int capacity()
+    {
+        return this.capacity;
+    }
+
+    @Override
+    public boolean has()
+    {
+        return has(0);
+    }
+
+    public boolean has(int n)
+    {
+        check(n);
+        fill(n + 1);
+        return n < this.size;
+    }
+
+    @Override
+    public T next()
+    {
+        T element = peek(0);
+        this.ring[this.head] = null;
+        this.head = (this.head + 1) & this.mask;
+        this.size--;
+        return element;
+    }
+
+    @Override
+    public T peek()
+    {
+        return peek(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T peek(int n)
+    {
+        if(!has(n))
+            throw new NoSuchElementException("No more tokens available!");
+        return (T) this.ring[(this.head + n) & this.mask];
+    }
+
+    private void check(int n)
+    {
+        if(n < 0 || n >= this.capacity)
+            throw new RuntimeException("Lookahead " + n + " is outside of the capacity " + this.capacity + "!");
+    }
+
+    private void fill(int count)
+    {
+        while (this.size < count && this.source.has())
+        {
+            this.ring[(this.head + this.size) & this.mask] = this.source.next();
+            this.size++;
+        }
+    }
+}
@@ -2,11 +2,21 @@ package plt.provider;
 
 import plt.lexer.BasicToken;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class TokenProvider<T, R extends BasicToken<T>> implements Provider<R>
 {
     private final Provider<R> provider;
+    private final ListProvider<R> list;
+    private final List<R> retained = new ArrayList<>();
+    private int offset;
+    private int position;
+    private int[] marks = new int[8];
+    private int[] serials = new int[8];
+    private int depth;
+    private int serial;
 
     public TokenProvider(List<R> tokens)
     {
@@ -16,24 +26,77 @@ public class TokenProvider<T, R extends BasicToken<T>> implements Provider<R>
     public TokenProvider(Provider<R> provider)
     {
         this.provider = provider;
+        this.list = provider instanceof ListProvider<R> list ? list : null;
     }
 
     @Override
     public boolean has()
     {
-        return this.provider.has();
+        return this.position - this.offset < this.retained.size() || this.provider.has();
     }
 
     @Override
     public R next()
     {
-        return this.provider.next();
+        int index = this.position++ - this.offset;
+        if(index < this.retained.size())
+        {
+            R token = this.retained.get(index);
+            if(this.depth == 0 && index + 1 == this.retained.size())
+                drop();
+            return token;
+        }
+        R token = this.provider.next();
+        if(this.list == null && this.depth > 0)
+            this.retained.add(token);
+        else
+            this.offset = this.position;
+        return token;
     }
 
     @Override
     public R peek()
     {
-        return this.provider.peek();
+        int index = this.position - this.offset;
+        return index < this.retained.size() ? this.retained.get(index) : this.provider.peek();
+    }
+
+    public long mark()
+    {
+        int mark = this.list != null ? this.list.index() : this.position;
+        if(this.list == null && this.depth == 0 && this.position > this.offset)
+        {
+            this.retained.subList(0, this.position - this.offset).clear();
+            this.offset = this.position;
+        }
+        if(this.depth == this.marks.length)
+        {
+            this.marks = Arrays.copyOf(this.marks, this.depth * 2);
+            this.serials = Arrays.copyOf(this.serials, this.depth * 2);
+        }
+        this.marks[this.depth] = mark;
+        this.serials[this.depth] = ++this.serial;
+        return (long) this.serial << 32 | this.depth++;
+    }
+
+    public void reset(long mark)
+    {
+        int index = index(mark);
+        if(index < 0)
+            throw new RuntimeException("Mark " + mark + " is not active!");
+        if(this.list != null)
+            this.list.index(this.marks[index]);
+        else
+            this.position = this.marks[index];
+    }
+
+    public void release(long mark)
+    {
+        if(this.depth == 0 || index(mark) != this.depth - 1)
+            throw new RuntimeException("Mark " + mark + " is not the most recent active mark!");
+        this.depth--;
+        if(this.list == null && this.depth == 0 && this.position - this.offset >= this.retained.size())
+            drop();
     }
 
     public boolean nextIs(T type)
@@ -59,4 +122,16 @@ public class TokenProvider<T, R extends BasicToken<T>> implements Provider<R>
             throw new RuntimeException("Expected " + text + "!");
         return next();
     }
+
+    private int index(long mark)
+    {
+        int index = (int) mark;
+        return index >= 0 && index < this.depth && this.serials[index] == (int) (mark >>> 32) ? index : -1;
+    }
+
+    private void drop()
+    {
+        this.retained.clear();
+        this.offset = this.position;
+    }
 }